@@ -0,0 +1,74 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+
+/**
+ * Benchmark of the reconcile steps which are executed without database access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReconcileBenchmark {
+
+    private DatabaseSpec spec;
+
+    private Secret secret;
+
+    private Database database;
+
+    @Setup
+    public void setup() {
+        spec = new DatabaseSpec();
+        spec.setHost("postgresql");
+        spec.setName("benchmark_database");
+        spec.setUser("benchmark_user");
+        spec.setSchema("benchmark_user");
+        spec.setPasswordKey("password");
+        spec.setPasswordSecrets("benchmark-db");
+        spec.setExtensions(List.of("seg", "cube"));
+
+        secret = new Secret();
+        secret.setMetadata(new ObjectMetaBuilder().withName("benchmark-db").withNamespace("default")
+                .withUid("benchmark-uid").withResourceVersion("1").build());
+        secret.setData(Map.of("password",
+                Base64.getEncoder().encodeToString("benchmark_password".getBytes(StandardCharsets.UTF_8))));
+
+        database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName("benchmark").withNamespace("default")
+                .withGeneration(1L).build());
+        database.setSpec(spec);
+    }
+
+    @Benchmark
+    public byte[] createRequestData() throws Exception {
+        return DatabaseController.createRequestData(spec, secret);
+    }
+
+    @Benchmark
+    public String createJdbcUrl() {
+        return DatabaseService.createJdbcUrl("jdbc:postgresql://postgresql:5432/onecx?sslmode=disable", spec.getName());
+    }
+
+    @Benchmark
+    public String createFingerprint() {
+        return DatabaseController.createFingerprint(spec, secret);
+    }
+
+    @Benchmark
+    public DatabaseStatus updateStatus() {
+        DatabaseController.updateStatusPojo(database, "fingerprint");
+        return database.getStatus();
+    }
+}
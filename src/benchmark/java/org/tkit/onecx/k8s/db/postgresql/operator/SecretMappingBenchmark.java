@@ -0,0 +1,72 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.client.informers.cache.BasicItemStore;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.informers.impl.cache.CacheImpl;
+import io.javaoperatorsdk.operator.processing.event.ResourceID;
+
+/**
+ * Benchmark of the mapping of a password secret to the database resources in the primary cache. The index lookup
+ * of the controller is compared with the scan of all cached resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecretMappingBenchmark {
+
+    @Param({ "1000", "10000" })
+    int count;
+
+    private CacheImpl<Database> cache;
+
+    private Secret secret;
+
+    @Setup
+    public void setup() {
+        cache = new CacheImpl<>();
+        cache.setItemStore(new BasicItemStore<>(Cache::metaNamespaceKeyFunc));
+        cache.addIndexers(Map.of(DatabaseController.SECRET_INDEX, DatabaseController::secretIndex));
+        for (int i = 0; i < count; i++) {
+            DatabaseSpec spec = new DatabaseSpec();
+            spec.setPasswordSecrets("db-secret-" + i);
+            Database database = new Database();
+            database.setMetadata(new ObjectMetaBuilder().withName("db-" + i).withNamespace("ns-" + (i % 10)).build());
+            database.setSpec(spec);
+            cache.put(database);
+        }
+
+        int i = count / 2;
+        secret = new Secret();
+        secret.setMetadata(new ObjectMetaBuilder().withName("db-secret-" + i).withNamespace("ns-" + (i % 10)).build());
+    }
+
+    @Benchmark
+    public Set<ResourceID> byIndex() {
+        return cache.byIndex(DatabaseController.SECRET_INDEX,
+                DatabaseController.secretIndexKey(secret.getMetadata().getNamespace(), secret.getMetadata().getName()))
+                .stream()
+                .map(ResourceID::fromResource)
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Set<ResourceID> scan() {
+        return cache.list().stream()
+                .filter(d -> d.getMetadata().getNamespace().equals(secret.getMetadata().getNamespace()))
+                .filter(d -> secret.getMetadata().getName().equals(d.getSpec().getPasswordSecrets()))
+                .map(ResourceID::fromResource)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,44 @@
+{{/*
+Watched namespaces of the operator, the same value sets the ONECX_K8S_DB_POSTGRESQL_OPERATOR_NAMESPACES.
+*/}}
+{{- define "operator.namespaces" -}}
+{{- $namespaces := list -}}
+{{- range splitList "," (default "JOSDK_WATCH_CURRENT" .Values.app.env.ONECX_K8S_DB_POSTGRESQL_OPERATOR_NAMESPACES) -}}
+{{- $namespace := trim . -}}
+{{- if eq $namespace "JOSDK_WATCH_CURRENT" -}}
+{{- $namespace = $.Release.Namespace -}}
+{{- end -}}
+{{- if $namespace -}}
+{{- $namespaces = append $namespaces $namespace -}}
+{{- end -}}
+{{- end -}}
+{{- uniq $namespaces | join "," -}}
+{{- end -}}
+
+{{/*
+Rules for the database resources and password secrets of the watched namespaces.
+*/}}
+{{- define "operator.rules" -}}
+- apiGroups:
+    - onecx.tkit.org
+  resources:
+    - databases
+    - databases/status
+    - databases/finalizers
+  verbs:
+    - get
+    - list
+    - watch
+    - patch
+    - update
+    - create
+    - delete
+- apiGroups:
+    - ""
+  resources:
+    - secrets
+  verbs:
+    - get
+    - list
+    - watch
+{{- end -}}
@@ -0,0 +1,157 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically refreshed snapshots of the users and databases of the PostgreSQL servers.
+ */
+@ApplicationScoped
+public class CatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogCache.class);
+
+    /**
+     * SQL to load all users and databases.
+     */
+    private static final String SQL_LOAD_CATALOG = "SELECT 'u', usename FROM pg_user"
+            + " UNION ALL SELECT 'd', datname FROM pg_catalog.pg_database";
+
+    @Inject
+    DatabaseConfig config;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the catalog snapshot of the host and reloads it with the connection if it is older than
+     * the refresh interval.
+     *
+     * @param host the host of the CR spec
+     * @param connection the host admin connection
+     * @return the catalog snapshot or {@code null} if the cache is disabled
+     * @throws SQLException if the loading of the snapshot failed
+     */
+    public Snapshot get(String host, Connection connection) throws SQLException {
+        long interval = config.catalogConfig().refreshInterval().toNanos();
+        if (interval <= 0) {
+            return null;
+        }
+        Snapshot current = current(host);
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshots.get(host);
+            if (current == null || System.nanoTime() - current.loaded >= interval) {
+                current = load(host, connection);
+                snapshots.put(host, current);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Returns the catalog snapshot of the host without loading it.
+     *
+     * @param host the host of the CR spec
+     * @return the catalog snapshot or {@code null} if there is no snapshot younger than the refresh interval
+     */
+    public Snapshot current(String host) {
+        long interval = config.catalogConfig().refreshInterval().toNanos();
+        if (interval <= 0) {
+            return null;
+        }
+        Snapshot current = snapshots.get(host);
+        if (current != null && System.nanoTime() - current.loaded < interval) {
+            return current;
+        }
+        return null;
+    }
+
+    /**
+     * Add created user to the snapshot of the host.
+     *
+     * @param host the host of the CR spec
+     * @param user the user name
+     */
+    public void addUser(String host, String user) {
+        Snapshot current = snapshots.get(host);
+        if (current != null) {
+            current.users.add(user);
+        }
+    }
+
+    /**
+     * Add created database to the snapshot of the host.
+     *
+     * @param host the host of the CR spec
+     * @param database the database name
+     */
+    public void addDatabase(String host, String database) {
+        Snapshot current = snapshots.get(host);
+        if (current != null) {
+            current.databases.add(database);
+        }
+    }
+
+    /**
+     * Invalidate the snapshot of the host. The next access loads a new snapshot.
+     *
+     * @param host the host of the CR spec
+     */
+    public void invalidate(String host) {
+        snapshots.remove(host);
+    }
+
+    private static Snapshot load(String host, Connection connection) throws SQLException {
+        Snapshot result = new Snapshot(System.nanoTime());
+        try (PreparedStatement statement = connection.prepareStatement(SQL_LOAD_CATALOG);
+                ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                if ("u".equals(rs.getString(1))) {
+                    result.users.add(rs.getString(2));
+                } else {
+                    result.databases.add(rs.getString(2));
+                }
+            }
+        }
+        log.info("Load catalog snapshot host: {} users: {} databases: {}", host, result.users.size(),
+                result.databases.size());
+        return result;
+    }
+
+    /**
+     * Snapshot of the users and databases.
+     */
+    public static class Snapshot {
+
+        private final Set<String> users = ConcurrentHashMap.newKeySet();
+
+        private final Set<String> databases = ConcurrentHashMap.newKeySet();
+
+        private final long loaded;
+
+        Snapshot(long loaded) {
+            this.loaded = loaded;
+        }
+
+        public boolean userExists(String user) {
+            return users.contains(user);
+        }
+
+        public boolean databaseExists(String database) {
+            return databases.contains(database);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.sql.Connection;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the catalog snapshots of the hosts with one query per host. The reconciles of the up-to-date database
+ * resources compare the status with the snapshot and do not open a connection. The warm-up runs on leader
+ * takeover, the snapshots of the other hosts are loaded by their first reconcile.
+ */
+@ApplicationScoped
+public class CatalogWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogWarmup.class);
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    HostDataSources hostDataSources;
+
+    @Inject
+    CatalogCache catalogCache;
+
+    /**
+     * Reload the catalog snapshots of the hosts with an existing admin datasource. The admin datasources
+     * of the additional hosts are not created by the warm-up. Errors are logged, the reconcile loads
+     * the snapshot again.
+     */
+    public void warmUp() {
+        if (!config.catalogConfig().warmUp() || config.catalogConfig().refreshInterval().isZero()) {
+            return;
+        }
+        for (String host : hostDataSources.created()) {
+            catalogCache.invalidate(host);
+            try (Connection connection = hostDataSources.get(host).dataSource().getConnection()) {
+                catalogCache.get(host, connection);
+            } catch (Exception ex) {
+                log.warn("Warm-up of the catalog snapshot host: {} failed. Error: {}", host, ex.getMessage());
+            }
+        }
+    }
+}
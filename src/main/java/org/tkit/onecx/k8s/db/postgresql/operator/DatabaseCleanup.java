@@ -0,0 +1,91 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javaoperatorsdk.operator.processing.event.ResourceID;
+
+/**
+ * Drops the databases and users of the deleted database resources on a bounded pool of background threads.
+ * The reconcile threads only submit the drop and check its result with the next cleanup.
+ */
+@ApplicationScoped
+public class DatabaseCleanup {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseCleanup.class);
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    DatabaseService databaseService;
+
+    private final Map<ResourceID, Future<Void>> drops = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        DatabaseConfig.CleanupConfig cleanupConfig = config.cleanupConfig();
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(cleanupConfig.threads(), cleanupConfig.threads(), 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(cleanupConfig.queueSize()),
+                r -> new Thread(r, "database-cleanup-" + count.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submit the drop of the database resource or check the result of the submitted drop.
+     *
+     * @param id the database resource id
+     * @param spec the spec of the deleted database resource
+     * @param dropDatabase {@code false} if the database is used by other database resources
+     * @param dropUser {@code false} if the user is used by other database resources
+     * @return {@code true} if the database and user are dropped, {@code false} if the drop is not finished
+     *         or could not be submitted
+     * @throws Exception if the drop failed, the next call submits a new drop
+     */
+    public boolean drop(ResourceID id, DatabaseSpec spec, boolean dropDatabase, boolean dropUser) throws Exception {
+        Future<Void> drop = drops.get(id);
+        if (drop == null) {
+            try {
+                drop = executor.submit(() -> {
+                    databaseService.drop(spec, dropDatabase, dropUser);
+                    return null;
+                });
+            } catch (RejectedExecutionException ex) {
+                log.info("Maximum of waiting drops reached - reschedule database: {} namespace: {}", id.getName(),
+                        id.getNamespace().orElse(null));
+                return false;
+            }
+            drops.put(id, drop);
+        }
+        if (!drop.isDone()) {
+            return false;
+        }
+        drops.remove(id);
+        try {
+            drop.get();
+            return true;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception e) {
+                throw e;
+            }
+            throw ex;
+        }
+    }
+}
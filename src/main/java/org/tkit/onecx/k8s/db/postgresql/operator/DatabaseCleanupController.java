@@ -0,0 +1,165 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javaoperatorsdk.operator.api.config.ControllerConfigurationOverrider;
+import io.javaoperatorsdk.operator.api.config.informer.Informer;
+import io.javaoperatorsdk.operator.api.reconciler.*;
+import io.javaoperatorsdk.operator.processing.event.ResourceID;
+import io.javaoperatorsdk.operator.processing.event.source.filter.OnUpdateFilter;
+import io.quarkiverse.operatorsdk.runtime.api.ConfigurableReconciler;
+import io.quarkus.arc.lookup.LookupIfProperty;
+
+/**
+ * Drops the database and user of the deleted database resources. The controller is only registered with
+ * the enabled cleanup, only then the database resources of the managed hosts get the finalizer. The controller
+ * has its own informer, with the enabled cleanup the database resources are cached twice.
+ */
+@LookupIfProperty(name = "onecx.k8s.db.postgresql.operator.cleanup.enabled", stringValue = "true")
+@ControllerConfiguration(name = "database-cleanup", informer = @Informer(name = "cleanup", namespaces = Constants.WATCH_CURRENT_NAMESPACE, onUpdateFilter = DatabaseCleanupController.UpdateFilter.class))
+public class DatabaseCleanupController implements ConfigurableReconciler<Database>, Cleaner<Database> {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseCleanupController.class);
+
+    /**
+     * Prefix of the finalizer name. Operators of different hosts use their own finalizer.
+     */
+    static final String FINALIZER_PREFIX = "databases.onecx.tkit.org/";
+
+    /**
+     * Maximum length of the finalizer name after the prefix.
+     */
+    private static final int FINALIZER_NAME_LENGTH = 63;
+
+    private static final int FINALIZER_HASH_LENGTH = 8;
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    DatabaseCleanup databaseCleanup;
+
+    @Inject
+    HostDataSources hostDataSources;
+
+    @Inject
+    ReconcileDebounce reconcileDebounce;
+
+    @Inject
+    ShardManager shardManager;
+
+    @Inject
+    DatabaseTelemetry telemetry;
+
+    @Override
+    public void updateConfigurationFrom(ControllerConfigurationOverrider<Database> configOverrider) {
+        Set<String> namespaces = config.namespaces();
+        if (namespaces.contains(Constants.WATCH_ALL_NAMESPACES)) {
+            configOverrider.watchingAllNamespaces();
+        } else {
+            configOverrider.settingNamespaces(namespaces);
+        }
+        configOverrider.withFinalizer(finalizer(config.host()));
+        // the database resources of the other hosts do not get the finalizer
+        configOverrider.withGenericFilter(
+                resource -> resource.getSpec() != null && hostDataSources.contains(resource.getSpec().getHost()));
+    }
+
+    @Override
+    public UpdateControl<Database> reconcile(Database database, Context<Database> context) {
+        // the database is reconciled by the database controller, this controller only adds the finalizer
+        return UpdateControl.noUpdate();
+    }
+
+    @Override
+    public DeleteControl cleanup(Database database, Context<Database> context) throws Exception {
+
+        reconcileDebounce.remove(ResourceID.fromResource(database));
+
+        // the owner of the shard drops the database
+        if (!shardManager.owns(database)) {
+            telemetry.outcome(DatabaseTelemetry.Outcome.SKIPPED_SHARD);
+            return DeleteControl.noFinalizerRemoval();
+        }
+
+        String name = database.getMetadata().getName();
+        String namespace = database.getMetadata().getNamespace();
+
+        // keep the database and user shared with other database resources of the host
+        ResourceID id = ResourceID.fromResource(database);
+        DatabaseSpec spec = database.getSpec();
+        List<DatabaseSpec> others = context.getPrimaryCache()
+                .list(d -> !d.isMarkedForDeletion() && d.getSpec() != null && spec.getHost().equals(d.getSpec().getHost())
+                        && !id.equals(ResourceID.fromResource(d)))
+                .map(Database::getSpec)
+                .toList();
+        boolean dropDatabase = others.stream().noneMatch(o -> spec.getName().equals(o.getName()));
+        boolean dropUser = others.stream().noneMatch(o -> spec.getUser().equals(o.getUser()));
+        if (!dropDatabase || !dropUser) {
+            log.info("Database '{}' namespace: {} shares the database: {} or user: {} with other resources", name,
+                    namespace, !dropDatabase, !dropUser);
+        }
+
+        if (!databaseCleanup.drop(id, spec, dropDatabase, dropUser)) {
+            log.debug("Drop of database '{}' namespace: {} is not finished - reschedule cleanup", name, namespace);
+            return DeleteControl.noFinalizerRemoval().rescheduleAfter(config.cleanupConfig().pollInterval());
+        }
+
+        log.info("Database '{}' namespace: {} dropped - remove finalizer", name, namespace);
+        telemetry.outcome(DatabaseTelemetry.Outcome.DELETED);
+        return DeleteControl.defaultDelete();
+    }
+
+    /**
+     * Finalizer of the host. The host is a valid finalizer name or it is sanitized and gets the hash of the host,
+     * so different hosts keep different finalizers.
+     *
+     * @param host the host of the operator
+     * @return the finalizer of the host
+     */
+    static String finalizer(String host) {
+        String name = host.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9._-]", "-");
+        if (name.equals(host) && name.length() <= FINALIZER_NAME_LENGTH && isAlphanumeric(name.charAt(0))
+                && isAlphanumeric(name.charAt(name.length() - 1))) {
+            return FINALIZER_PREFIX + name;
+        }
+        String hash = HexFormat.of().formatHex(sha256(host), 0, FINALIZER_HASH_LENGTH / 2);
+        name = name.substring(0, Math.min(name.length(), FINALIZER_NAME_LENGTH - FINALIZER_HASH_LENGTH - 1))
+                .replaceAll("^[._-]+|[._-]+$", "");
+        return FINALIZER_PREFIX + (name.isEmpty() ? hash : name + "-" + hash);
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class UpdateFilter implements OnUpdateFilter<Database> {
+
+        @Override
+        public boolean accept(Database newResource, Database oldResource) {
+            // deleted resources and the removed finalizer
+            return newResource.isMarkedForDeletion()
+                    || !Objects.equals(newResource.getFinalizers(), oldResource.getFinalizers());
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package org.tkit.onecx.k8s.db.postgresql.operator;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import io.javaoperatorsdk.operator.api.reconciler.Constants;
 import io.quarkus.runtime.annotations.ConfigDocFilename;
 import io.quarkus.runtime.annotations.ConfigPhase;
 import io.quarkus.runtime.annotations.ConfigRoot;
@@ -13,18 +21,112 @@ import io.smallrye.config.WithName;
 public interface DatabaseConfig {
 
     /**
-     * Server host configuration.
+     * Server host configuration. The host of the CR spec for the default datasource.
      */
     @WithName("host")
     @WithDefault("postgresql")
     String host();
 
+    /**
+     * Watched namespaces of the database resources and password secrets. Use {@code JOSDK_WATCH_CURRENT} for
+     * the namespace of the operator and {@code JOSDK_ALL_NAMESPACES} for all namespaces of the cluster.
+     */
+    @WithName("namespaces")
+    @WithDefault(Constants.WATCH_CURRENT_NAMESPACE)
+    Set<String> namespaces();
+
+    /**
+     * Additional server hosts configuration. The key is the host of the CR spec.
+     */
+    @WithName("hosts")
+    Map<String, HostConfig> hosts();
+
     /**
      * Leader election configuration
      */
     @WithName("leader-election")
     LeaderElectionConfig leaderElectionConfig();
 
+    /**
+     * User datasource configuration
+     */
+    @WithName("user-datasource")
+    UserDataSourceConfig userDataSourceConfig();
+
+    /**
+     * Password secrets configuration
+     */
+    @WithName("secret")
+    SecretConfig secretConfig();
+
+    /**
+     * Catalog cache configuration
+     */
+    @WithName("catalog")
+    CatalogConfig catalogConfig();
+
+    /**
+     * Reconcile configuration
+     */
+    @WithName("reconcile")
+    ReconcileConfig reconcileConfig();
+
+    /**
+     * Sharding configuration
+     */
+    @WithName("sharding")
+    ShardingConfig shardingConfig();
+
+    /**
+     * Cleanup configuration
+     */
+    @WithName("cleanup")
+    CleanupConfig cleanupConfig();
+
+    /**
+     * Host circuit breaker configuration
+     */
+    @WithName("circuit-breaker")
+    CircuitBreakerConfig circuitBreakerConfig();
+
+    /**
+     * Server host config
+     */
+    interface HostConfig {
+
+        /**
+         * JDBC url of the admin datasource.
+         */
+        @WithName("jdbc-url")
+        String jdbcUrl();
+
+        /**
+         * Admin user name.
+         */
+        @WithName("username")
+        String username();
+
+        /**
+         * Admin user password.
+         */
+        @WithName("password")
+        String password();
+
+        /**
+         * Minimum number of connections of the admin datasource.
+         */
+        @WithName("min-size")
+        @WithDefault("0")
+        int minSize();
+
+        /**
+         * Maximum number of connections of the admin datasource.
+         */
+        @WithName("max-size")
+        @WithDefault("10")
+        int maxSize();
+    }
+
     /**
      * Leader election config
      */
@@ -37,4 +139,277 @@ public interface DatabaseConfig {
         @WithDefault("onecx-k8s-db-postgresql-operator-lease")
         String leaseName();
     }
+
+    /**
+     * User datasource config
+     */
+    interface UserDataSourceConfig {
+
+        /**
+         * Maximum number of cached user datasources.
+         */
+        @WithName("cache-size")
+        @WithDefault("50")
+        int cacheSize();
+
+        /**
+         * Maximum number of cached admin datasources of the databases. They are bounded separately from the user
+         * datasources.
+         */
+        @WithName("admin-cache-size")
+        @WithDefault("20")
+        int adminCacheSize();
+
+        /**
+         * Maximum number of connections of one user datasource.
+         */
+        @WithName("max-size")
+        @WithDefault("2")
+        int maxSize();
+
+        /**
+         * Idle time after which the user datasource connections are closed and the datasource is removed from the cache.
+         */
+        @WithName("idle-timeout")
+        @WithDefault("PT5M")
+        Duration idleTimeout();
+    }
+
+    /**
+     * Password secrets config
+     */
+    interface SecretConfig {
+
+        /**
+         * Label selector of the password secrets. Only secrets matching the selector are watched and cached.
+         */
+        @WithName("label-selector")
+        Optional<String> labelSelector();
+
+        /**
+         * Types of secrets which are not watched and cached.
+         */
+        @WithName("exclude-types")
+        @WithDefault("kubernetes.io/service-account-token,kubernetes.io/tls,kubernetes.io/dockerconfigjson,helm.sh/release.v1")
+        List<String> excludeTypes();
+
+        /**
+         * Time to live of the verified passwords of the users. After the time the stored verifier of the user is
+         * checked again, a password changed outside of the operator is then reset by the next reconcile.
+         */
+        @WithName("verified-ttl")
+        @WithDefault("PT10M")
+        Duration verifiedTtl();
+    }
+
+    /**
+     * Catalog cache config
+     */
+    interface CatalogConfig {
+
+        /**
+         * Refresh interval of the cached users and databases snapshot. Zero disables the cache.
+         */
+        @WithName("refresh-interval")
+        @WithDefault("PT1M")
+        Duration refreshInterval();
+
+        /**
+         * Load the snapshots of the hosts with an existing admin datasource on leader takeover, before the database
+         * resources are reconciled.
+         */
+        @WithName("warm-up")
+        @WithDefault("true")
+        boolean warmUp();
+    }
+
+    /**
+     * Reconcile config
+     */
+    interface ReconcileConfig {
+
+        /**
+         * Number of reconcile threads. Default is the {@code quarkus.operator-sdk.concurrent-reconciliation-threads}
+         * of the operator SDK.
+         */
+        @WithName("threads")
+        OptionalInt threads();
+
+        /**
+         * Execute the reconciles on virtual threads instead of the reconcile thread pool.
+         * Requires Java 21 or later, otherwise the reconcile thread pool is used.
+         */
+        @WithName("virtual-threads")
+        @WithDefault("false")
+        boolean virtualThreads();
+
+        /**
+         * Maximum number of concurrent reconciles per PostgreSQL host. The limit of a host is at most the
+         * max-size of its admin datasource.
+         */
+        @WithName("max-concurrent-per-host")
+        @WithDefault("20")
+        int maxConcurrentPerHost();
+
+        /**
+         * Delay of the next reconcile when the maximum number of concurrent reconciles for the host is reached.
+         */
+        @WithName("admission-retry-delay")
+        @WithDefault("PT2S")
+        Duration admissionRetryDelay();
+
+        /**
+         * Debounce window of the database resource changes. The changes of the database resource and password secret
+         * within the window are reconciled together at the end of the window. New database resources are reconciled
+         * without delay. Zero disables the debounce.
+         */
+        @WithName("debounce")
+        @WithDefault("PT1S")
+        Duration debounce();
+
+        /**
+         * Rate limit configuration
+         */
+        @WithName("rate-limit")
+        RateLimitConfig rateLimitConfig();
+    }
+
+    /**
+     * Rate limit config
+     */
+    interface RateLimitConfig {
+
+        /**
+         * Maximum number of reconciles per second and PostgreSQL host which change the database. Zero disables
+         * the rate limit.
+         */
+        @WithName("ops-per-second")
+        @WithDefault("0")
+        double opsPerSecond();
+
+        /**
+         * Part of the rate reserved for new database resources. The resync of existing database resources
+         * could not use the reserved part.
+         */
+        @WithName("new-resource-reserve")
+        @WithDefault("0.2")
+        double newResourceReserve();
+    }
+
+    /**
+     * Sharding config
+     */
+    interface ShardingConfig {
+
+        /**
+         * Reconcile the database resources active-active on all replicas. Every replica reconciles the resources
+         * of its shards instead of one leader reconciling all resources.
+         */
+        @WithName("enabled")
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Number of shards. The shards are distributed equally between the replicas.
+         */
+        @WithName("shards")
+        @WithDefault("16")
+        int shards();
+
+        /**
+         * Identity of the replica. Default is the pod name.
+         */
+        @WithName("identity")
+        Optional<String> identity();
+
+        /**
+         * Duration of the shard and member leases. Shards of a missing replica are claimed after this duration.
+         */
+        @WithName("lease-duration")
+        @WithDefault("PT15S")
+        Duration leaseDuration();
+
+        /**
+         * Interval of the lease renewal and shard rebalancing.
+         */
+        @WithName("renew-interval")
+        @WithDefault("PT5S")
+        Duration renewInterval();
+    }
+
+    /**
+     * Cleanup config
+     */
+    interface CleanupConfig {
+
+        /**
+         * Drop the database and user of the deleted database resources. Only the enabled cleanup adds the finalizer
+         * to the database resources of the managed hosts.
+         */
+        @WithName("enabled")
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Number of background threads which drop the databases.
+         */
+        @WithName("threads")
+        @WithDefault("2")
+        int threads();
+
+        /**
+         * Maximum number of waiting drops. Deletes over the limit are rescheduled.
+         */
+        @WithName("queue-size")
+        @WithDefault("100")
+        int queueSize();
+
+        /**
+         * Delay of the next check of a running drop.
+         */
+        @WithName("poll-interval")
+        @WithDefault("PT5S")
+        Duration pollInterval();
+    }
+
+    /**
+     * Host circuit breaker config
+     */
+    interface CircuitBreakerConfig {
+
+        /**
+         * Fail fast the reconciles of an unavailable host.
+         */
+        @WithName("enabled")
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Number of consecutive connection failures after which the host is unavailable.
+         */
+        @WithName("failure-threshold")
+        @WithDefault("5")
+        int failureThreshold();
+
+        /**
+         * Interval of the health check of the unavailable host.
+         */
+        @WithName("probe-interval")
+        @WithDefault("PT10S")
+        Duration probeInterval();
+
+        /**
+         * Number of failed database resources reconciled together after the recovery of the host.
+         */
+        @WithName("recovery-batch-size")
+        @WithDefault("10")
+        int recoveryBatchSize();
+
+        /**
+         * Interval between the batches of failed database resources reconciled after the recovery of the host.
+         */
+        @WithName("recovery-interval")
+        @WithDefault("PT1S")
+        Duration recoveryInterval();
+    }
 }
@@ -1,6 +1,12 @@
 package org.tkit.onecx.k8s.db.postgresql.operator;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import jakarta.inject.Inject;
@@ -9,6 +15,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.fabric8.kubernetes.api.model.Secret;
+import io.javaoperatorsdk.operator.api.config.ControllerConfigurationOverrider;
+import io.javaoperatorsdk.operator.api.config.informer.FieldSelector;
 import io.javaoperatorsdk.operator.api.config.informer.Informer;
 import io.javaoperatorsdk.operator.api.config.informer.InformerEventSourceConfiguration;
 import io.javaoperatorsdk.operator.api.reconciler.*;
@@ -18,45 +26,129 @@ import io.javaoperatorsdk.operator.processing.event.source.SecondaryToPrimaryMap
 import io.javaoperatorsdk.operator.processing.event.source.filter.OnAddFilter;
 import io.javaoperatorsdk.operator.processing.event.source.filter.OnUpdateFilter;
 import io.javaoperatorsdk.operator.processing.event.source.informer.InformerEventSource;
+import io.quarkiverse.operatorsdk.runtime.api.ConfigurableReconciler;
 
 @ControllerConfiguration(name = "database", informer = @Informer(name = "parameter", namespaces = Constants.WATCH_CURRENT_NAMESPACE, onAddFilter = DatabaseController.AddFilter.class, onUpdateFilter = DatabaseController.UpdateFilter.class))
-public class DatabaseController implements Reconciler<Database> {
+public class DatabaseController implements ConfigurableReconciler<Database> {
 
     private static final Logger log = LoggerFactory.getLogger(DatabaseController.class);
 
+    /**
+     * Name of the primary cache index of the password secrets.
+     */
+    static final String SECRET_INDEX = "password-secret-index";
+
     @Inject
     DatabaseConfig config;
 
     @Inject
     DatabaseService databaseService;
 
+    @Inject
+    CatalogCache catalogCache;
+
+    @Inject
+    HostAdmission hostAdmission;
+
+    @Inject
+    HostDataSources hostDataSources;
+
+    @Inject
+    HostRateLimiter hostRateLimiter;
+
+    @Inject
+    HostCircuitBreaker hostCircuitBreaker;
+
+    @Inject
+    ReconcileDebounce reconcileDebounce;
+
+    @Inject
+    ShardManager shardManager;
+
+    @Inject
+    DatabaseTelemetry telemetry;
+
+    @Override
+    public void updateConfigurationFrom(ControllerConfigurationOverrider<Database> configOverrider) {
+        Set<String> namespaces = config.namespaces();
+        if (namespaces.contains(Constants.WATCH_ALL_NAMESPACES)) {
+            configOverrider.watchingAllNamespaces();
+        } else {
+            // one informer and cache per namespace
+            configOverrider.settingNamespaces(namespaces);
+        }
+    }
+
     @Override
     public List<EventSource<?, Database>> prepareEventSources(EventSourceContext<Database> context) {
-        final SecondaryToPrimaryMapper<Secret> webappsMatchingTomcatName = (Secret t) -> context.getPrimaryCache()
-                .list(db -> {
-                    if (db.getSpec() != null) {
-                        return db.getSpec().getPasswordSecrets().equals(t.getMetadata().getName());
-                    }
-                    return false;
-                })
+        context.getPrimaryCache().addIndexer(SECRET_INDEX, DatabaseController::secretIndex);
+
+        final SecondaryToPrimaryMapper<Secret> databasesMatchingSecret = (Secret t) -> context.getPrimaryCache()
+                .byIndex(SECRET_INDEX, secretIndexKey(t.getMetadata().getNamespace(), t.getMetadata().getName()))
+                .stream()
                 .map(ResourceID::fromResource)
                 .collect(Collectors.toSet());
 
-        InformerEventSourceConfiguration<Secret> configuration = InformerEventSourceConfiguration
+        InformerEventSourceConfiguration.Builder<Secret> builder = InformerEventSourceConfiguration
                 .from(Secret.class, Database.class)
-                .withSecondaryToPrimaryMapper(webappsMatchingTomcatName)
+                .withNamespacesInheritedFromController()
+                .withSecondaryToPrimaryMapper(databasesMatchingSecret)
+                // metadata only changes of the secret do not change the password
+                .withOnUpdateFilter((newSecret, oldSecret) -> !Objects.equals(newSecret.getData(), oldSecret.getData()))
                 .withPrimaryToSecondaryMapper(
                         (Database primary) -> Set.of(new ResourceID(primary.getSpec().getPasswordSecrets(),
-                                primary.getMetadata().getNamespace())))
-                .build();
-        return List.of(new InformerEventSource<>(configuration, context));
+                                primary.getMetadata().getNamespace())));
+
+        // watch and cache only the secrets which could be password secrets
+        config.secretConfig().labelSelector().ifPresent(builder::withLabelSelector);
+        List<FieldSelector.Field> fields = config.secretConfig().excludeTypes().stream()
+                .map(type -> new FieldSelector.Field("type", type, true))
+                .toList();
+        if (!fields.isEmpty()) {
+            builder.withFieldSelector(new FieldSelector(fields));
+        }
+
+        List<EventSource<?, Database>> eventSources = new ArrayList<>();
+        eventSources.add(new InformerEventSource<>(builder.build(), context));
+        if (config.shardingConfig().enabled()) {
+            eventSources.add(new ShardEventSource(shardManager, context, config.shardingConfig().shards()));
+        }
+        if (config.circuitBreakerConfig().enabled()) {
+            eventSources.add(new HostRecoveryEventSource(hostCircuitBreaker, context, config.circuitBreakerConfig()));
+        }
+        return eventSources;
+    }
+
+    /**
+     * Index of the database password secret as (namespace, secret name) key.
+     */
+    static List<String> secretIndex(Database database) {
+        if (database.getSpec() == null || database.getSpec().getPasswordSecrets() == null) {
+            return List.of();
+        }
+        return List.of(secretIndexKey(database.getMetadata().getNamespace(), database.getSpec().getPasswordSecrets()));
+    }
+
+    static String secretIndexKey(String namespace, String name) {
+        return namespace + "#" + name;
     }
 
     @Override
     public UpdateControl<Database> reconcile(Database database, Context<Database> context)
             throws Exception {
 
-        if (!config.host().equals(database.getSpec().getHost())) {
+        return telemetry.reconcile(database, () -> reconcileDatabase(database, context));
+    }
+
+    private UpdateControl<Database> reconcileDatabase(Database database, Context<Database> context) throws Exception {
+
+        if (!hostDataSources.contains(database.getSpec().getHost())) {
+            telemetry.outcome(DatabaseTelemetry.Outcome.SKIPPED_HOST);
+            return UpdateControl.noUpdate();
+        }
+
+        if (!shardManager.owns(database)) {
+            telemetry.outcome(DatabaseTelemetry.Outcome.SKIPPED_SHARD);
             return UpdateControl.noUpdate();
         }
 
@@ -65,19 +157,94 @@ public class DatabaseController implements Reconciler<Database> {
 
             String name = database.getMetadata().getName();
             String namespace = database.getMetadata().getNamespace();
+            ResourceID id = ResourceID.fromResource(database);
 
-            log.info("Reconcile postgresql database: {} namespace: {}", name, namespace);
-            byte[] password = createRequestData(database.getSpec(), secret.get());
-            databaseService.update(database.getSpec(), password);
+            byte[] password = telemetry.step(DatabaseTelemetry.Step.SECRET,
+                    () -> createRequestData(database.getSpec(), secret.get()));
+            // invalid names fail before the host connection and are not counted by the circuit breaker
+            validateNames(database.getSpec());
+            String fingerprint = createFingerprint(database.getSpec(), secret.get());
+            if (isUpToDate(database, fingerprint) && existsInCatalog(database.getSpec())) {
+                log.debug("Database '{}' namespace: {} is up to date - skip reconcile", name, namespace);
+                reconcileDebounce.remove(id);
+                telemetry.outcome(DatabaseTelemetry.Outcome.UNCHANGED);
+                return UpdateControl.noUpdate();
+            }
 
-            updateStatusPojo(database);
+            // coalesce the changes of the database resource and secret, new resources, retries and reschedules
+            // are not delayed
+            if (context.getRetryInfo().isEmpty() && !isNew(database)) {
+                long delay = reconcileDebounce.delay(id, rid -> context.getPrimaryCache().get(rid).isPresent());
+                if (delay > 0) {
+                    log.debug("Debounce database: {} namespace: {}", name, namespace);
+                    telemetry.outcome(DatabaseTelemetry.Outcome.DEBOUNCED);
+                    return UpdateControl.<Database> noUpdate()
+                            .rescheduleAfter(Duration.ofMillis(TimeUnit.NANOSECONDS.toMillis(delay) + 1));
+                }
+            }
+
+            // fail fast until the host is available again, the recovery triggers the reconcile
+            if (!hostCircuitBreaker.allow(database.getSpec().getHost())) {
+                log.debug("Host '{}' is unavailable - skip database: {} namespace: {}", database.getSpec().getHost(), name,
+                        namespace);
+                telemetry.outcome(DatabaseTelemetry.Outcome.HOST_UNAVAILABLE);
+                DatabaseStatus current = database.getStatus();
+                database.setStatus(createErrorStatus(database,
+                        "Host '" + database.getSpec().getHost() + "' is unavailable"));
+                if (database.getStatus().equals(current)) {
+                    telemetry.statusPatchElided();
+                    return UpdateControl.noUpdate();
+                }
+                return UpdateControl.patchStatus(database);
+            }
+
+            // new database resources have priority over the resync of existing resources
+            long wait = hostRateLimiter.tryAcquire(database.getSpec().getHost(), isNew(database));
+            if (wait > 0) {
+                log.debug("Rate limit for host '{}' reached - reschedule database: {} namespace: {}",
+                        database.getSpec().getHost(), name, namespace);
+                telemetry.outcome(DatabaseTelemetry.Outcome.RATE_LIMITED);
+                return UpdateControl.<Database> noUpdate()
+                        .rescheduleAfter(Duration.ofMillis(TimeUnit.NANOSECONDS.toMillis(wait) + 1));
+            }
+
+            try (HostAdmission.Permit permit = hostAdmission.tryAcquire(database.getSpec().getHost())) {
+                if (permit == null) {
+                    log.info("Maximum of concurrent reconciles for host '{}' reached - reschedule database: {} namespace: {}",
+                            database.getSpec().getHost(), name, namespace);
+                    telemetry.outcome(DatabaseTelemetry.Outcome.RESCHEDULED);
+                    return UpdateControl.<Database> noUpdate()
+                            .rescheduleAfter(config.reconcileConfig().admissionRetryDelay());
+                }
+
+                log.info("Reconcile postgresql database: {} namespace: {}", name, namespace);
+                try {
+                    databaseService.update(database.getSpec(), password);
+                } catch (SQLException ex) {
+                    hostCircuitBreaker.failure(database.getSpec().getHost(), ex);
+                    throw ex;
+                } finally {
+                    reconcileDebounce.remove(id);
+                }
+                hostCircuitBreaker.success(database.getSpec().getHost());
+            }
+
+            DatabaseStatus current = database.getStatus();
+            updateStatusPojo(database, fingerprint);
+            telemetry.outcome(DatabaseTelemetry.Outcome.CREATED);
+            if (database.getStatus().equals(current)) {
+                log.info("Database '{}' reconciled - status unchanged", database.getMetadata().getName());
+                telemetry.statusPatchElided();
+                return UpdateControl.noUpdate();
+            }
             log.info("Database '{}' reconciled - updating status", database.getMetadata().getName());
             return UpdateControl.patchStatus(database);
         }
+        telemetry.outcome(DatabaseTelemetry.Outcome.NO_SECRET);
         return UpdateControl.noUpdate();
     }
 
-    private static byte[] createRequestData(DatabaseSpec spec, Secret secret) throws MissingMandatoryKeyException {
+    static byte[] createRequestData(DatabaseSpec spec, Secret secret) throws MissingMandatoryKeyException {
         Map<String, String> data = secret.getData();
 
         String key = spec.getPasswordKey();
@@ -94,6 +261,102 @@ public class DatabaseController implements Reconciler<Database> {
         return Base64.getDecoder().decode(value);
     }
 
+    /**
+     * Returns {@code true} if the database was already created for the current generation, spec and password.
+     */
+    private static boolean isUpToDate(Database database, String fingerprint) {
+        DatabaseStatus status = database.getStatus();
+        return status != null
+                && status.getStatus() == DatabaseStatus.Status.CREATED
+                && Objects.equals(status.getObservedGeneration(), database.getMetadata().getGeneration())
+                && fingerprint.equals(status.getFingerprint());
+    }
+
+    /**
+     * Returns {@code false} if the current catalog snapshot of the host is missing the user or the database.
+     * Without a current snapshot the status of the database resource is trusted.
+     */
+    private boolean existsInCatalog(DatabaseSpec spec) {
+        CatalogCache.Snapshot catalog = catalogCache.current(spec.getHost());
+        if (catalog == null || (catalog.userExists(spec.getUser()) && catalog.databaseExists(spec.getName()))) {
+            return true;
+        }
+        log.info("User '{}' or database '{}' of host '{}' is missing - reconcile database", spec.getUser(), spec.getName(),
+                spec.getHost());
+        return false;
+    }
+
+    /**
+     * Validate the names of the user, database, schema, search path and extensions of the spec.
+     */
+    static void validateNames(DatabaseSpec spec) throws InvalidNameException {
+        validateName("user", spec.getUser());
+        validateName("database", spec.getName());
+        if (spec.getSchema() != null && !spec.getSchema().isBlank()) {
+            validateName("schema", spec.getSchema());
+        }
+        if (spec.getExtensions() != null) {
+            for (String extension : spec.getExtensions()) {
+                validateName("extension", extension);
+            }
+        }
+        if (spec.getUserSearchPath() != null && !spec.getUserSearchPath().isBlank()) {
+            try {
+                Identifiers.quoteSearchPath(spec.getUserSearchPath());
+            } catch (SQLException ex) {
+                throw new InvalidNameException("Invalid user search path '" + spec.getUserSearchPath() + "'");
+            }
+        }
+    }
+
+    private static void validateName(String type, String name) throws InvalidNameException {
+        if (!Identifiers.isValid(name)) {
+            throw new InvalidNameException("Invalid " + type + " name '" + name + "'. The name must not be empty"
+                    + " and is limited to " + Identifiers.MAX_LENGTH + " bytes.");
+        }
+    }
+
+    /**
+     * Returns {@code true} if the database resource was not reconciled yet.
+     */
+    static boolean isNew(Database database) {
+        return database.getStatus() == null || database.getStatus().getStatus() == null
+                || database.getStatus().getObservedGeneration() == null;
+    }
+
+    /**
+     * Create fingerprint (SHA-256 hash) of the database spec and the version of the password secret. The password
+     * is not part of the fingerprint, the status could be read without the permission to read the secret.
+     */
+    static String createFingerprint(DatabaseSpec spec, Secret secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, spec.getHost());
+            update(digest, spec.getName());
+            update(digest, spec.getUser());
+            update(digest, spec.getPasswordSecrets());
+            update(digest, spec.getPasswordKey());
+            update(digest, spec.getSchema());
+            update(digest, spec.getUserSearchPath());
+            update(digest, spec.getExtensions() == null ? null : String.join(",", spec.getExtensions()));
+            if (spec.getExtensionVersions() != null && !spec.getExtensionVersions().isEmpty()) {
+                update(digest, new TreeMap<>(spec.getExtensionVersions()).toString());
+            }
+            update(digest, secret.getMetadata().getUid());
+            update(digest, secret.getMetadata().getResourceVersion());
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
     public static class MissingMandatoryKeyException extends Exception {
 
         public MissingMandatoryKeyException(String msg) {
@@ -101,32 +364,52 @@ public class DatabaseController implements Reconciler<Database> {
         }
     }
 
+    public static class InvalidNameException extends Exception {
+
+        public InvalidNameException(String msg) {
+            super(msg);
+        }
+    }
+
     @Override
     public ErrorStatusUpdateControl<Database> updateErrorStatus(Database resource,
             Context<Database> context, Exception e) {
 
         var message = e.getMessage();
-        if (e.getCause() instanceof MissingMandatoryKeyException me) {
-            message = me.getMessage();
+        if (e.getCause() instanceof MissingMandatoryKeyException || e.getCause() instanceof InvalidNameException) {
+            message = e.getCause().getMessage();
         }
 
         log.error("Error reconcile resource", e);
+        telemetry.outcome(DatabaseTelemetry.Outcome.ERROR);
+        DatabaseStatus status = createErrorStatus(resource, message);
+        if (status.equals(resource.getStatus())) {
+            telemetry.statusPatchElided();
+            return ErrorStatusUpdateControl.noStatusUpdate();
+        }
+        resource.setStatus(status);
+        return ErrorStatusUpdateControl.patchStatus(resource);
+    }
+
+    private static DatabaseStatus createErrorStatus(Database database, String message) {
         DatabaseStatus status = new DatabaseStatus();
         status.setUrl(null);
         status.setUser(null);
         status.setPasswordSecrets(null);
+        status.setObservedGeneration(database.getMetadata().getGeneration());
         status.setStatus(DatabaseStatus.Status.ERROR);
         status.setMessage(message);
-        resource.setStatus(status);
-        return ErrorStatusUpdateControl.patchStatus(resource);
+        return status;
     }
 
-    private void updateStatusPojo(Database database) {
+    static void updateStatusPojo(Database database, String fingerprint) {
         DatabaseStatus status = new DatabaseStatus();
         DatabaseSpec spec = database.getSpec();
         status.setUrl(spec.getName());
         status.setUser(spec.getUser());
         status.setPasswordSecrets(spec.getPasswordSecrets());
+        status.setObservedGeneration(database.getMetadata().getGeneration());
+        status.setFingerprint(fingerprint);
         status.setStatus(DatabaseStatus.Status.CREATED);
         status.setMessage(null);
         database.setStatus(status);
@@ -144,7 +427,9 @@ public class DatabaseController implements Reconciler<Database> {
 
         @Override
         public boolean accept(Database newResource, Database oldResource) {
-            return newResource.getSpec() != null;
+            // status and metadata only changes, like the own status patch, do not change the generation
+            return newResource.getSpec() != null
+                    && !Objects.equals(newResource.getMetadata().getGeneration(), oldResource.getMetadata().getGeneration());
         }
     }
 }
@@ -1,8 +1,13 @@
 package org.tkit.onecx.k8s.db.postgresql.operator;
 
+import java.sql.Array;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -27,17 +32,26 @@ public class DatabaseService {
     private static final Logger log = LoggerFactory.getLogger(DatabaseService.class);
 
     /**
-     * SQL to check if user exists
+     * SQL to check if user and database exist
      */
-    private static final String SQL_CHECK_USER = "SELECT true FROM pg_user WHERE usename = '%s'";
+    private static final String SQL_CHECK_USER_AND_DB = "SELECT EXISTS (SELECT 1 FROM pg_user WHERE usename = ?),"
+            + " EXISTS (SELECT 1 FROM pg_catalog.pg_database WHERE datname = ?)";
     /**
      * SQL to update user password
      */
-    private static final String SQL_UPDATE_USER = "ALTER USER %s PASSWORD '%s'";
+    private static final String SQL_UPDATE_USER = "ALTER USER %s PASSWORD %s";
     /**
      * SQL to create a new user
      */
-    private static final String SQL_CREATE_USER = "CREATE USER %s WITH ENCRYPTED PASSWORD '%s'";
+    private static final String SQL_CREATE_USER = "CREATE USER %s WITH ENCRYPTED PASSWORD %s";
+    /**
+     * SQL state of the missing permission.
+     */
+    private static final String SQL_STATE_INSUFFICIENT_PRIVILEGE = "42501";
+    /**
+     * SQL to load the stored password verifier of the user.
+     */
+    private static final String SQL_LOAD_VERIFIER = "SELECT rolpassword FROM pg_authid WHERE rolname = ?";
     /**
      * SQL to update user search path.
      */
@@ -45,11 +59,25 @@ public class DatabaseService {
     /**
      * SQL to create user extension.
      */
-    private static final String SQL_USER_EXTENSION = "CREATE EXTENSION IF NOT EXISTS \"%s\"";
+    private static final String SQL_USER_EXTENSION = "CREATE EXTENSION IF NOT EXISTS %s";
+    /**
+     * SQL to create user extension with version.
+     */
+    private static final String SQL_USER_EXTENSION_VERSION = "CREATE EXTENSION IF NOT EXISTS %s VERSION %s";
+    /**
+     * SQL to update user extension to version.
+     */
+    private static final String SQL_UPDATE_EXTENSION = "ALTER EXTENSION %s UPDATE TO %s";
+    /**
+     * SQL to load installed extensions.
+     */
+    private static final String SQL_LOAD_EXTENSIONS = "SELECT extname, extversion FROM pg_extension";
     /**
-     * SQL to check if database exists.
+     * SQL to check if schema exists and to load the user settings of all databases.
      */
-    private static final String SQL_CHECK_DB = "SELECT true FROM pg_catalog.pg_database WHERE datname = '%s'";
+    private static final String SQL_CHECK_SCHEMA_AND_SETTINGS = "SELECT EXISTS (SELECT 1 FROM pg_namespace WHERE nspname = ?),"
+            + " (SELECT s.setconfig FROM pg_db_role_setting s JOIN pg_roles r ON r.oid = s.setrole"
+            + " WHERE r.rolname = ? AND s.setdatabase = 0)";
     /**
      * SQL to update database for the owner.
      */
@@ -57,7 +85,7 @@ public class DatabaseService {
     /**
      * SQL to create a database.
      */
-    private static final String SQL_CREATE_DB = "CREATE DATABASE %s OWNER '%s'";
+    private static final String SQL_CREATE_DB = "CREATE DATABASE %s OWNER %s";
     /**
      * SQL to create a new schema for the user.
      */
@@ -70,117 +98,469 @@ public class DatabaseService {
      * SQL to grant database to user.
      */
     private static final String SQL_GRANT_DB_TO_USER = "GRANT ALL ON DATABASE %s TO %s";
+    /**
+     * SQL to disable new connections to the database.
+     */
+    private static final String SQL_DISABLE_CONNECTIONS = "ALTER DATABASE %s ALLOW_CONNECTIONS false";
+    /**
+     * SQL to terminate the sessions of the database.
+     */
+    private static final String SQL_TERMINATE_SESSIONS = "SELECT pg_terminate_backend(pid) FROM pg_stat_activity"
+            + " WHERE datname = ? AND pid <> pg_backend_pid()";
+    /**
+     * SQL to drop the database.
+     */
+    private static final String SQL_DROP_DB = "DROP DATABASE IF EXISTS %s";
+    /**
+     * SQL to check if the user owns a database.
+     */
+    private static final String SQL_CHECK_USER_OWNS_DB = "SELECT EXISTS (SELECT 1 FROM pg_catalog.pg_database d"
+            + " JOIN pg_roles r ON r.oid = d.datdba WHERE r.rolname = ?)";
+    /**
+     * SQL to drop the user.
+     */
+    private static final String SQL_DROP_USER = "DROP USER IF EXISTS %s";
 
     @Inject
-    AgroalDataSource dataSource;
+    HostDataSources hostDataSources;
+
+    @Inject
+    UserDataSourceCache userDataSourceCache;
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    CatalogCache catalogCache;
+
+    @Inject
+    ScramVerifiers scramVerifiers;
+
+    @Inject
+    DatabaseTelemetry telemetry;
 
     @ConfigProperty(name = "onecx.operator.db.postgresql.grant-user-role-to-admin", defaultValue = "true")
     boolean grantUserRoleToAdmin;
 
-    @ConfigProperty(name = "quarkus.datasource.username")
-    String databaseAdmin;
-
     @SuppressWarnings("java:S6912")
     public void update(DatabaseSpec spec, byte[] password) throws SQLException {
 
-        try (Connection connection = dataSource.getConnection()) {
+        HostDataSources.Host host = hostDataSources.get(spec.getHost());
+        boolean databaseCreated = false;
+        try (Connection connection = host.dataSource().getConnection()) {
 
-            log.info("Open database connection.");
+            log.info("Open database '{}' host connection.", spec.getHost());
 
             try (Statement statement = connection.createStatement()) {
 
-                // check user
-                boolean userExists = statement.executeQuery(String.format(SQL_CHECK_USER, spec.getUser())).next();
+                // quoted identifiers of the user and database
+                String user = Identifiers.quote(spec.getUser());
+                String db = Identifiers.quote(spec.getName());
+
+                // check user and database
+                boolean userExists;
+                boolean dbExists;
+                CatalogCache.Snapshot catalog = telemetry.step(DatabaseTelemetry.Step.CATALOG_CHECK,
+                        () -> catalogCache.get(spec.getHost(), connection));
+                if (catalog != null) {
+                    userExists = catalog.userExists(spec.getUser());
+                    dbExists = catalog.databaseExists(spec.getName());
+                } else {
+                    boolean[] exists = telemetry.step(DatabaseTelemetry.Step.CATALOG_CHECK,
+                            () -> checkUserAndDatabase(connection, spec));
+                    userExists = exists[0];
+                    dbExists = exists[1];
+                }
                 log.info("Check user '{}' if exists '{}'.", spec.getUser(), userExists);
+                log.info("Check database '{}' if exists '{}'", spec.getName(), dbExists);
+
+                // create or update user with the client side verifier, skip the update of an unchanged password
+                boolean passwordChanged = !userExists || !isPasswordUnchanged(connection, spec, password);
+                String verifier = null;
+                if (passwordChanged) {
+                    verifier = scramVerifiers.create(password);
+                    statement.addBatch(String.format(userExists ? SQL_UPDATE_USER : SQL_CREATE_USER, user,
+                            statement.enquoteLiteral(verifier)));
+                }
+
+                // update database or grant user role to admin
+                if (dbExists) {
+                    statement.addBatch(String.format(SQL_UPDATE_DB, db, user));
+                } else if (grantUserRoleToAdmin) {
+                    statement.addBatch(String.format(SQL_GRANT_ROLE_TO_ADMIN, user,
+                            Identifiers.quote(host.admin())));
+                }
 
-                // create or update user
+                // execute user and database changes in one round trip
+                telemetry.step(DatabaseTelemetry.Step.USER, statement::executeBatch);
+                if (verifier != null) {
+                    scramVerifiers.verified(spec.getHost(), spec.getUser(), password, verifier);
+                }
                 if (userExists) {
-                    statement.execute(String.format(SQL_UPDATE_USER, spec.getUser(), new String(password)));
-                    log.info("Update existing user '{}'", spec.getUser());
+                    log.info("Update existing user '{}' password changed '{}'", spec.getUser(), passwordChanged);
                 } else {
-                    statement.execute(String.format(SQL_CREATE_USER, spec.getUser(), new String(password)));
+                    catalogCache.addUser(spec.getHost(), spec.getUser());
                     log.info("Create user '{}'", spec.getUser());
                 }
-
-                // check database
-                boolean dbExists = statement.executeQuery(String.format(SQL_CHECK_DB, spec.getName())).next();
-                log.info("Check database '{}' if exists '{}'", spec.getName(), dbExists);
-
-                // create or update database
                 if (dbExists) {
-                    statement.execute(String.format(SQL_UPDATE_DB, spec.getName(), spec.getUser()));
                     log.info("Update database '{}'", spec.getName());
-                } else {
-
-                    // grant user role to admin
-                    if (grantUserRoleToAdmin) {
-                        statement.execute(String.format(SQL_GRANT_ROLE_TO_ADMIN, spec.getUser(), databaseAdmin));
-                        log.info("Grant user role '{}' to admin '{}'", spec.getUser(), databaseAdmin);
-                    }
+                } else if (grantUserRoleToAdmin) {
+                    log.info("Grant user role '{}' to admin '{}'", spec.getUser(), host.admin());
+                }
 
-                    // create database
-                    statement.execute(String.format(SQL_CREATE_DB, spec.getName(), spec.getUser()));
+                if (!dbExists) {
+                    // create database, could not be executed in the batch (transaction block)
+                    telemetry.step(DatabaseTelemetry.Step.CREATE_DATABASE,
+                            () -> statement.execute(String.format(SQL_CREATE_DB, db, user)));
+                    catalogCache.addDatabase(spec.getHost(), spec.getName());
+                    databaseCreated = true;
                     log.info("Create database '{}'", spec.getName());
 
                     // grant database to user
-                    statement.execute(String.format(SQL_GRANT_DB_TO_USER, spec.getName(), spec.getUser()));
+                    telemetry.step(DatabaseTelemetry.Step.GRANT_DATABASE,
+                            () -> statement.execute(String.format(SQL_GRANT_DB_TO_USER, db, user)));
                     log.info("Grant database '{}' to user '{}'", spec.getName(), spec.getUser());
                 }
-
             }
+        } catch (SQLException ex) {
+            // snapshot and password could be out of date, reload them on the next reconcile
+            catalogCache.invalidate(spec.getHost());
+            scramVerifiers.invalidate(spec.getHost(), spec.getUser());
+            throw ex;
         } finally {
-            log.info("Close database connection.");
-        }
-
-        try (AgroalDataSource datasource = createUserDatasource(spec, password)) {
-            try (Connection connection = datasource.getConnection()) {
-
-                log.info("Open database '{}' user connection.", spec.getName());
-
-                try (Statement statement = connection.createStatement()) {
-                    // create schema if not exists
-                    if (spec.getSchema() != null && !spec.getSchema().isBlank()) {
-                        statement.execute(String.format(SQL_CREATE_SCHEMA, spec.getSchema(), spec.getUser()));
-                        log.info("Create schema '{}'", spec.getSchema());
-                    }
-
-                    // update user search path
-                    if (spec.getUserSearchPath() != null && !spec.getUserSearchPath().isBlank()) {
-                        statement.execute(String.format(SQL_USER_SEARCH_PATH, spec.getUser(), spec.getUserSearchPath()));
-                        log.info("Update user '{}' search path to '{}'", spec.getUser(),
-                                spec.getUserSearchPath());
-                    }
-
-                    // create extension if not exists
-                    if (spec.getExtensions() != null && !spec.getExtensions().isEmpty()) {
-                        for (String extension : spec.getExtensions()) {
-                            statement.execute(String.format(SQL_USER_EXTENSION, extension));
-                        }
-                        log.info("Create extensions '{}'", spec.getExtensions());
-                    }
+            log.info("Close database '{}' host connection.", spec.getHost());
+        }
+
+        // check the existing database with the admin and open the user connection only for changes
+        Changes changes = null;
+        if (!databaseCreated) {
+            try {
+                changes = telemetry.step(DatabaseTelemetry.Step.DATABASE_CHECK, () -> checkDatabase(host, spec));
+            } catch (SQLException ex) {
+                log.warn("Check of database '{}' failed, execute all changes. Error: {}", spec.getName(), ex.getMessage());
+            }
+            if (changes != null && !changes.any()) {
+                log.info("Database '{}' schema, search path and extensions are up to date.", spec.getName());
+                return;
+            }
+        }
+
+        try (UserDataSourceCache.Lease lease = userDataSourceCache.get(spec.getHost(), spec.getName(), spec.getUser(),
+                password, () -> telemetry.step(DatabaseTelemetry.Step.USER_DATASOURCE,
+                        () -> createUserDatasource(host.dataSource(), spec, password)));
+                Connection connection = lease.dataSource().getConnection()) {
+
+            log.info("Open database '{}' user connection.", spec.getName());
+
+            try (Statement statement = connection.createStatement()) {
+                String user = Identifiers.quote(spec.getUser());
+
+                // create schema if not exists
+                if (spec.getSchema() != null && !spec.getSchema().isBlank() && (changes == null || changes.schema())) {
+                    String schema = Identifiers.quote(spec.getSchema());
+                    telemetry.step(DatabaseTelemetry.Step.SCHEMA,
+                            () -> statement.execute(String.format(SQL_CREATE_SCHEMA, schema, user)));
+                    log.info("Create schema '{}'", spec.getSchema());
+                }
+
+                // update user search path
+                if (spec.getUserSearchPath() != null && !spec.getUserSearchPath().isBlank()
+                        && (changes == null || changes.searchPath())) {
+                    String searchPath = Identifiers.quoteSearchPath(spec.getUserSearchPath());
+                    telemetry.step(DatabaseTelemetry.Step.SEARCH_PATH,
+                            () -> statement.execute(String.format(SQL_USER_SEARCH_PATH, user, searchPath)));
+                    log.info("Update user '{}' search path to '{}'", spec.getUser(),
+                            spec.getUserSearchPath());
+                }
+
+                // create or update missing and outdated extensions
+                if (spec.getExtensions() != null && !spec.getExtensions().isEmpty()) {
+                    Map<String, String> installed = changes != null ? changes.extensions()
+                            : telemetry.step(DatabaseTelemetry.Step.EXTENSION_CHECK, () -> loadExtensions(connection));
+                    updateExtensions(statement, spec, installed);
                 }
             }
+        } catch (SQLException ex) {
+            // do not keep a datasource with broken connections or outdated credentials
+            userDataSourceCache.invalidate(spec.getHost(), spec.getName(), spec.getUser());
+            throw ex;
         } finally {
             log.info("Close database '{}' user connection.", spec.getName());
         }
     }
 
-    private AgroalDataSource createUserDatasource(DatabaseSpec spec, byte[] password) throws SQLException {
+    /**
+     * Revoke the access, terminate the sessions and drop the database and user of the spec. The user is kept
+     * if it still owns a database.
+     *
+     * @param spec the spec of the deleted database resource
+     * @param dropDatabase {@code false} to keep the database used by other database resources
+     * @param dropUser {@code false} to keep the user used by other database resources
+     * @throws SQLException if the drop failed
+     */
+    public void drop(DatabaseSpec spec, boolean dropDatabase, boolean dropUser) throws SQLException {
+
+        HostDataSources.Host host = hostDataSources.get(spec.getHost());
+
+        // close the cached pools of the database
+        userDataSourceCache.invalidate(spec.getHost(), spec.getName(), spec.getUser());
+        if (dropDatabase) {
+            userDataSourceCache.invalidateAdmin(spec.getHost(), spec.getName());
+        }
+
+        try (Connection connection = host.dataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+
+            String user = Identifiers.quote(spec.getUser());
+            String db = Identifiers.quote(spec.getName());
+
+            boolean[] exists = checkUserAndDatabase(connection, spec);
+            if (dropDatabase && exists[1]) {
+                statement.execute(String.format(SQL_DISABLE_CONNECTIONS, db));
+                log.info("Disable connections to database '{}'", spec.getName());
+
+                try (PreparedStatement terminate = connection.prepareStatement(SQL_TERMINATE_SESSIONS)) {
+                    terminate.setString(1, spec.getName());
+                    terminate.execute();
+                }
+                log.info("Terminate sessions of database '{}'", spec.getName());
+
+                telemetry.step(DatabaseTelemetry.Step.DROP_DATABASE,
+                        () -> statement.execute(String.format(SQL_DROP_DB, db)));
+                log.info("Drop database '{}'", spec.getName());
+            }
+            if (dropUser && exists[0]) {
+                if (ownsDatabase(connection, spec.getUser())) {
+                    // the drop would fail on every retry
+                    log.info("Keep user '{}' which owns other databases", spec.getUser());
+                } else {
+                    telemetry.step(DatabaseTelemetry.Step.DROP_USER,
+                            () -> statement.execute(String.format(SQL_DROP_USER, user)));
+                    scramVerifiers.invalidate(spec.getHost(), spec.getUser());
+                    log.info("Drop user '{}'", spec.getUser());
+                }
+            }
+        } finally {
+            catalogCache.invalidate(spec.getHost());
+        }
+    }
+
+    private static boolean ownsDatabase(Connection connection, String user) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_CHECK_USER_OWNS_DB)) {
+            statement.setString(1, user);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Check the schema, search path and extensions of the existing database with the cached admin datasource
+     * of the database.
+     */
+    private Changes checkDatabase(HostDataSources.Host host, DatabaseSpec spec) throws SQLException {
+        // admin credentials of the host datasource
+        try (UserDataSourceCache.Lease lease = userDataSourceCache.getAdmin(spec.getHost(), spec.getName(),
+                () -> telemetry.step(DatabaseTelemetry.Step.USER_DATASOURCE,
+                        () -> createDatabaseDatasource(host.dataSource(), spec.getName())));
+                Connection connection = lease.dataSource().getConnection();
+                PreparedStatement statement = connection.prepareStatement(SQL_CHECK_SCHEMA_AND_SETTINGS)) {
+
+            statement.setString(1, spec.getSchema());
+            statement.setString(2, spec.getUser());
+            boolean schema;
+            boolean searchPath;
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                schema = spec.getSchema() != null && !spec.getSchema().isBlank() && !rs.getBoolean(1);
+                searchPath = spec.getUserSearchPath() != null && !spec.getUserSearchPath().isBlank()
+                        && !isSearchPath(rs.getArray(2),
+                                "search_path=" + Identifiers.quoteSearchPath(spec.getUserSearchPath()));
+            }
+
+            Map<String, String> installed = Map.of();
+            boolean extension = false;
+            if (spec.getExtensions() != null && !spec.getExtensions().isEmpty()) {
+                installed = loadExtensions(connection);
+                Map<String, String> versions = spec.getExtensionVersions() == null ? Map.of()
+                        : spec.getExtensionVersions();
+                for (String name : spec.getExtensions()) {
+                    extension = extension || isExtensionChanged(versions.get(name), installed.get(name));
+                }
+            }
+            return new Changes(schema, searchPath, extension, installed);
+        } catch (SQLException ex) {
+            userDataSourceCache.invalidateAdmin(spec.getHost(), spec.getName());
+            throw ex;
+        }
+    }
+
+    private static boolean isSearchPath(Array settings, String searchPath) throws SQLException {
+        if (settings == null) {
+            return false;
+        }
+        for (Object setting : (Object[]) settings.getArray()) {
+            if (searchPath.equals(setting)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the extension is missing or the pinned version is different.
+     */
+    static boolean isExtensionChanged(String version, String current) {
+        return current == null || (version != null && !version.equals(current));
+    }
+
+    /**
+     * Required changes of the existing database.
+     */
+    private record Changes(boolean schema, boolean searchPath, boolean extension, Map<String, String> extensions) {
+
+        boolean any() {
+            return schema || searchPath || extension;
+        }
+    }
+
+    private static Map<String, String> loadExtensions(Connection connection) throws SQLException {
+        Map<String, String> result = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(SQL_LOAD_EXTENSIONS);
+                ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                result.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create the missing extensions and update the extensions with a different pinned version. Every extension
+     * is changed independently, the failed extensions do not block the other extensions.
+     */
+    private void updateExtensions(Statement statement, DatabaseSpec spec, Map<String, String> installed)
+            throws SQLException {
+        Map<String, String> versions = spec.getExtensionVersions() == null ? Map.of() : spec.getExtensionVersions();
+        SQLException error = null;
+        for (String extension : spec.getExtensions()) {
+            String version = versions.get(extension);
+            String current = installed.get(extension);
+            if (!isExtensionChanged(version, current)) {
+                continue;
+            }
+            String sql;
+            if (current == null) {
+                sql = version == null ? String.format(SQL_USER_EXTENSION, Identifiers.quote(extension))
+                        : String.format(SQL_USER_EXTENSION_VERSION, Identifiers.quote(extension),
+                                statement.enquoteLiteral(version));
+            } else {
+                sql = String.format(SQL_UPDATE_EXTENSION, Identifiers.quote(extension),
+                        statement.enquoteLiteral(version));
+            }
+            try {
+                telemetry.extension(extension, () -> statement.execute(sql));
+                log.info("Extension '{}' version '{}' installed version '{}'", extension, version, current);
+            } catch (SQLException ex) {
+                log.error("Error create or update extension '{}' of database '{}'", extension, spec.getName(), ex);
+                if (error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Check if the password of the existing user is unchanged. The stored verifier is only loaded if the password
+     * was not verified or set before.
+     */
+    private boolean isPasswordUnchanged(Connection connection, DatabaseSpec spec, byte[] password) {
+        if (scramVerifiers.isVerified(spec.getHost(), spec.getUser(), password)) {
+            return true;
+        }
+        if (!scramVerifiers.isReadable(spec.getHost())) {
+            return false;
+        }
+        return scramVerifiers.matches(spec.getHost(), spec.getUser(), password, loadVerifier(connection, spec));
+    }
+
+    /**
+     * Load the stored password verifier of the user. Only superusers could read {@code pg_authid}, without
+     * the permission the host is marked and the verifier is not loaded again.
+     */
+    private String loadVerifier(Connection connection, DatabaseSpec spec) {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_LOAD_VERIFIER)) {
+            statement.setString(1, spec.getUser());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException ex) {
+            if (SQL_STATE_INSUFFICIENT_PRIVILEGE.equals(ex.getSQLState())) {
+                log.info("Admin of host '{}' could not read the password verifiers, the password is always updated.",
+                        spec.getHost());
+                scramVerifiers.unreadable(spec.getHost());
+            } else {
+                log.debug("Could not load password verifier of user '{}'. Error: {}", spec.getUser(), ex.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private static boolean[] checkUserAndDatabase(Connection connection, DatabaseSpec spec) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL_CHECK_USER_AND_DB)) {
+            statement.setString(1, spec.getUser());
+            statement.setString(2, spec.getName());
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return new boolean[] { rs.getBoolean(1), rs.getBoolean(2) };
+            }
+        }
+    }
+
+    /**
+     * Create the admin datasource of the database. It uses the credentials of the host datasource.
+     */
+    private AgroalDataSource createDatabaseDatasource(AgroalDataSource dataSource, String database) throws SQLException {
+        return AgroalDataSource.from(createDatabaseConfiguration(dataSource, database).get());
+    }
+
+    private AgroalDataSource createUserDatasource(AgroalDataSource dataSource, DatabaseSpec spec, byte[] password)
+            throws SQLException {
+
+        AgroalDataSourceConfigurationSupplier dataSourceConfiguration = createDatabaseConfiguration(dataSource,
+                spec.getName());
+        AgroalConnectionFactoryConfigurationSupplier connectionFactoryConfiguration = dataSourceConfiguration
+                .connectionPoolConfiguration().connectionFactoryConfiguration();
+
+        connectionFactoryConfiguration.credential(new NamePrincipal(spec.getUser()));
+        connectionFactoryConfiguration.credential(new SimplePassword(new String(password)));
+        return AgroalDataSource.from(dataSourceConfiguration.get());
+    }
+
+    private AgroalDataSourceConfigurationSupplier createDatabaseConfiguration(AgroalDataSource dataSource, String database) {
 
         AgroalDataSourceConfigurationSupplier dataSourceConfiguration = new AgroalDataSourceConfigurationSupplier();
 
         dataSourceConfiguration.connectionPoolConfiguration(dataSource.getConfiguration().connectionPoolConfiguration());
         String jdbcUrl = dataSource.getConfiguration().connectionPoolConfiguration().connectionFactoryConfiguration().jdbcUrl();
-        jdbcUrl = createJdbcUrl(jdbcUrl, spec.getName());
+        jdbcUrl = createJdbcUrl(jdbcUrl, database);
 
+        // small pool for the few statements executed with the database connection
+        DatabaseConfig.UserDataSourceConfig userConfig = config.userDataSourceConfig();
         AgroalConnectionPoolConfigurationSupplier poolConfiguration = dataSourceConfiguration.connectionPoolConfiguration();
-        AgroalConnectionFactoryConfigurationSupplier connectionFactoryConfiguration = poolConfiguration
-                .connectionFactoryConfiguration();
+        poolConfiguration.initialSize(0);
+        poolConfiguration.minSize(0);
+        poolConfiguration.maxSize(userConfig.maxSize());
+        poolConfiguration.reapTimeout(userConfig.idleTimeout());
 
-        connectionFactoryConfiguration.jdbcUrl(jdbcUrl);
-        connectionFactoryConfiguration.credential(new NamePrincipal(spec.getUser()));
-        connectionFactoryConfiguration.credential(new SimplePassword(new String(password)));
-        return AgroalDataSource.from(dataSourceConfiguration.get());
+        poolConfiguration.connectionFactoryConfiguration().jdbcUrl(jdbcUrl);
+        return dataSourceConfiguration;
     }
 
     static String createJdbcUrl(String jdbcUrl, String database) {
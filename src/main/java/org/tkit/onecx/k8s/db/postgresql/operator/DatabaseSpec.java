@@ -1,6 +1,7 @@
 package org.tkit.onecx.k8s.db.postgresql.operator;
 
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -32,6 +33,9 @@ public class DatabaseSpec {
     @JsonProperty("user-search-path")
     private String userSearchPath;
 
+    @JsonProperty("extension-versions")
+    private Map<String, String> extensionVersions;
+
     public String getUser() {
         return user;
     }
@@ -80,6 +84,14 @@ public class DatabaseSpec {
         this.extensions = extensions;
     }
 
+    public Map<String, String> getExtensionVersions() {
+        return extensionVersions;
+    }
+
+    public void setExtensionVersions(Map<String, String> extensionVersions) {
+        this.extensionVersions = extensionVersions;
+    }
+
     public String getUserSearchPath() {
         return userSearchPath;
     }
@@ -106,6 +118,7 @@ public class DatabaseSpec {
                 ", password-key=" + passwordKey +
                 ", schema=" + schema +
                 ", extensions=" + extensions +
+                ", extension-versions=" + extensionVersions +
                 ", user-search-path='" + userSearchPath +
                 '}';
     }
@@ -1,5 +1,7 @@
 package org.tkit.onecx.k8s.db.postgresql.operator;
 
+import java.util.Objects;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class DatabaseStatus {
@@ -22,6 +24,9 @@ public class DatabaseStatus {
     @JsonProperty("password-secrets")
     private String passwordSecrets;
 
+    @JsonProperty("fingerprint")
+    private String fingerprint;
+
     public String getUrl() {
         return url;
     }
@@ -62,6 +67,14 @@ public class DatabaseStatus {
         this.passwordSecrets = passwordSecrets;
     }
 
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
     public enum Status {
 
         ERROR,
@@ -76,4 +89,30 @@ public class DatabaseStatus {
     public Long getObservedGeneration() {
         return observedGeneration;
     }
+
+    public void setObservedGeneration(Long observedGeneration) {
+        this.observedGeneration = observedGeneration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DatabaseStatus that)) {
+            return false;
+        }
+        return Objects.equals(observedGeneration, that.observedGeneration)
+                && Objects.equals(url, that.url)
+                && status == that.status
+                && Objects.equals(message, that.message)
+                && Objects.equals(user, that.user)
+                && Objects.equals(passwordSecrets, that.passwordSecrets)
+                && Objects.equals(fingerprint, that.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(observedGeneration, url, status, message, user, passwordSecrets, fingerprint);
+    }
 }
@@ -0,0 +1,209 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.Locale;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Metrics and traces of the database reconcile.
+ */
+@ApplicationScoped
+public class DatabaseTelemetry {
+
+    static final String PREFIX = "onecx.k8s.db.postgresql.operator";
+
+    static final String METRIC_RECONCILE = PREFIX + ".reconcile";
+
+    static final String METRIC_RECONCILE_STEP = PREFIX + ".reconcile.step";
+
+    static final String METRIC_RECONCILE_OUTCOME = PREFIX + ".reconcile.outcome";
+
+    static final String METRIC_STATUS_PATCH_ELIDED = PREFIX + ".status.patch.elided";
+
+    static final String SPAN_RECONCILE = "reconcile database";
+
+    static final AttributeKey<String> ATTR_RESOURCE = AttributeKey.stringKey("k8s.resource.name");
+
+    static final AttributeKey<String> ATTR_NAMESPACE = AttributeKey.stringKey("k8s.namespace.name");
+
+    static final AttributeKey<String> ATTR_DATABASE = AttributeKey.stringKey("db.namespace");
+
+    static final AttributeKey<String> ATTR_USER = AttributeKey.stringKey("db.user");
+
+    static final AttributeKey<String> ATTR_HOST = AttributeKey.stringKey("server.address");
+
+    static final AttributeKey<String> ATTR_EXTENSION = AttributeKey.stringKey("db.extension");
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    Tracer tracer;
+
+    /**
+     * Execute the reconcile of the database in a reconcile span and record the reconcile duration.
+     *
+     * @param database the database resource
+     * @param action the reconcile action
+     * @return the result of the action
+     * @throws E if the action failed
+     */
+    public <T, E extends Exception> T reconcile(Database database, Action<T, E> action) throws E {
+        Span span = tracer.spanBuilder(SPAN_RECONCILE)
+                .setAttribute(ATTR_RESOURCE, database.getMetadata().getName())
+                .setAttribute(ATTR_NAMESPACE, database.getMetadata().getNamespace())
+                .startSpan();
+        DatabaseSpec spec = database.getSpec();
+        if (spec != null) {
+            setAttribute(span, ATTR_DATABASE, spec.getName());
+            setAttribute(span, ATTR_USER, spec.getUser());
+            setAttribute(span, ATTR_HOST, spec.getHost());
+        }
+        return execute(span, registry.timer(METRIC_RECONCILE), action);
+    }
+
+    /**
+     * Count the reconcile outcome.
+     *
+     * @param outcome the reconcile outcome
+     */
+    public void outcome(Outcome outcome) {
+        registry.counter(METRIC_RECONCILE_OUTCOME, "outcome", tag(outcome)).increment();
+    }
+
+    /**
+     * Count the status patch which was not sent because the status did not change.
+     */
+    public void statusPatchElided() {
+        registry.counter(METRIC_STATUS_PATCH_ELIDED).increment();
+    }
+
+    /**
+     * Execute the reconcile step in a child span and record the step duration.
+     *
+     * @param step the reconcile step
+     * @param action the step action
+     * @return the result of the action
+     * @throws E if the action failed
+     */
+    public <T, E extends Exception> T step(Step step, Action<T, E> action) throws E {
+        Span span = tracer.spanBuilder(tag(step)).startSpan();
+        return execute(span, registry.timer(METRIC_RECONCILE_STEP, "step", tag(step), "extension", ""), action);
+    }
+
+    /**
+     * Execute the creation of the extension in a child span and record the duration.
+     *
+     * @param extension the extension name
+     * @param action the step action
+     * @return the result of the action
+     * @throws E if the action failed
+     */
+    public <T, E extends Exception> T extension(String extension, Action<T, E> action) throws E {
+        Span span = tracer.spanBuilder(tag(Step.EXTENSION)).setAttribute(ATTR_EXTENSION, extension).startSpan();
+        return execute(span, registry.timer(METRIC_RECONCILE_STEP, "step", tag(Step.EXTENSION), "extension", extension),
+                action);
+    }
+
+    private <T, E extends Exception> T execute(Span span, Timer timer, Action<T, E> action) throws E {
+        Timer.Sample sample = Timer.start(registry);
+        try (Scope ignored = span.makeCurrent()) {
+            return action.execute();
+        } catch (Exception e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, e.getMessage());
+            throw e;
+        } finally {
+            span.end();
+            sample.stop(timer);
+        }
+    }
+
+    private static void setAttribute(Span span, AttributeKey<String> key, String value) {
+        if (value != null) {
+            span.setAttribute(key, value);
+        }
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reconcile action.
+     */
+    @FunctionalInterface
+    public interface Action<T, E extends Exception> {
+
+        T execute() throws E;
+    }
+
+    /**
+     * Reconcile outcome.
+     */
+    public enum Outcome {
+
+        CREATED,
+
+        ERROR,
+
+        SKIPPED_HOST,
+
+        SKIPPED_SHARD,
+
+        NO_SECRET,
+
+        UNCHANGED,
+
+        RESCHEDULED,
+
+        RATE_LIMITED,
+
+        DEBOUNCED,
+
+        HOST_UNAVAILABLE,
+
+        DELETED;
+    }
+
+    /**
+     * Reconcile step.
+     */
+    public enum Step {
+
+        SECRET,
+
+        CATALOG_CHECK,
+
+        USER,
+
+        CREATE_DATABASE,
+
+        GRANT_DATABASE,
+
+        USER_DATASOURCE,
+
+        DATABASE_CHECK,
+
+        SCHEMA,
+
+        SEARCH_PATH,
+
+        EXTENSION_CHECK,
+
+        EXTENSION,
+
+        DROP_DATABASE,
+
+        DROP_USER;
+    }
+}
@@ -0,0 +1,76 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Limits the number of concurrent reconciles per PostgreSQL host so that the reconciles
+ * do not exhaust the admin connection pool.
+ */
+@ApplicationScoped
+public class HostAdmission {
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    HostDataSources hostDataSources;
+
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    /**
+     * Try to acquire a reconcile permit for the host without waiting.
+     *
+     * @param host the PostgreSQL host
+     * @return the permit or {@code null} if the maximum number of concurrent reconciles is reached
+     */
+    public Permit tryAcquire(String host) {
+        Semaphore semaphore = permits.computeIfAbsent(host, h -> new Semaphore(limit(h)));
+        if (!semaphore.tryAcquire()) {
+            return null;
+        }
+        return new Permit(semaphore);
+    }
+
+    int available(String host) {
+        Semaphore semaphore = permits.get(host);
+        return semaphore == null ? limit(host) : semaphore.availablePermits();
+    }
+
+    /**
+     * Maximum number of concurrent reconciles of the host, at most the pool size of the host admin datasource.
+     */
+    int limit(String host) {
+        int max = config.reconcileConfig().maxConcurrentPerHost();
+        if (!hostDataSources.contains(host)) {
+            return max;
+        }
+        return Math.min(max, hostDataSources.maxSize(host));
+    }
+
+    /**
+     * Reconcile permit of the host.
+     */
+    public static class Permit implements AutoCloseable {
+
+        private final Semaphore semaphore;
+
+        private boolean released;
+
+        Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker of the PostgreSQL hosts. After the configured number of consecutive connection failures the host
+ * is unavailable and the reconciles fail fast. One health check probes the host until it is available again, then
+ * the recovery listeners are notified.
+ */
+@ApplicationScoped
+public class HostCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(HostCircuitBreaker.class);
+
+    /**
+     * Timeout of the connection validation of the health check in seconds.
+     */
+    private static final int PROBE_TIMEOUT = 5;
+
+    /**
+     * Message of the acquisition timeout of the Agroal pool.
+     */
+    private static final String ACQUISITION_TIMEOUT = "acquisition timeout";
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    HostDataSources hostDataSources;
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService executor = Executors
+            .newSingleThreadScheduledExecutor(r -> new Thread(r, "database-host-probe"));
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Check if the reconcile could access the host.
+     *
+     * @param host the host of the CR spec
+     * @return {@code false} if the host is unavailable
+     */
+    public boolean allow(String host) {
+        Circuit circuit = circuits.get(host);
+        return circuit == null || !circuit.isOpen();
+    }
+
+    /**
+     * Reset the connection failures of the host.
+     *
+     * @param host the host of the CR spec
+     */
+    public void success(String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit != null) {
+            circuit.success();
+        }
+    }
+
+    /**
+     * Count the connection failure of the host and open the circuit if the threshold is reached.
+     * Other errors, like failed statements, are not counted.
+     *
+     * @param host the host of the CR spec
+     * @param ex the error of the reconcile
+     */
+    public void failure(String host, SQLException ex) {
+        DatabaseConfig.CircuitBreakerConfig circuitBreaker = config.circuitBreakerConfig();
+        if (!circuitBreaker.enabled() || !isConnectionFailure(ex)) {
+            return;
+        }
+        Circuit circuit = circuits.computeIfAbsent(host, h -> new Circuit());
+        if (circuit.failure(circuitBreaker.failureThreshold())) {
+            log.warn("Host '{}' is unavailable after {} connection failures - fail fast until the host is available",
+                    host, circuitBreaker.failureThreshold());
+            executor.schedule(() -> probe(host), circuitBreaker.probeInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Add listener for the recovered hosts.
+     *
+     * @param listener the recovery listener
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove the recovery listener.
+     *
+     * @param listener the recovery listener
+     */
+    public void removeListener(Consumer<String> listener) {
+        listeners.remove(listener);
+    }
+
+    void probe(String host) {
+        try (Connection connection = hostDataSources.get(host).dataSource().getConnection()) {
+            if (connection.isValid(PROBE_TIMEOUT)) {
+                circuits.get(host).close();
+                log.info("Host '{}' is available again", host);
+                listeners.forEach(l -> l.accept(host));
+                return;
+            }
+        } catch (Exception ex) {
+            log.debug("Health check of host '{}' failed. Error: {}", host, ex.getMessage());
+        }
+        executor.schedule(() -> probe(host), config.circuitBreakerConfig().probeInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns {@code true} for the errors of an unreachable server: connection exceptions (SQL state class 08),
+     * unavailable server (57P) and the acquisition timeout of the pool. Other errors without SQL state, like
+     * invalid names, are not connection failures.
+     */
+    static boolean isConnectionFailure(SQLException ex) {
+        if (ex instanceof SQLTransientConnectionException || ex instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String state = ex.getSQLState();
+        if (state != null) {
+            return state.startsWith("08") || state.startsWith("57P");
+        }
+        // the pool throws the acquisition timeout without SQL state, the cause could be the connection failure
+        return isAcquisitionTimeout(ex) || ex.getCause() instanceof SQLException cause && isConnectionFailure(cause);
+    }
+
+    private static boolean isAcquisitionTimeout(SQLException ex) {
+        return ex.getMessage() != null && ex.getMessage().toLowerCase(Locale.ROOT).contains(ACQUISITION_TIMEOUT);
+    }
+
+    /**
+     * Connection failures and state of the circuit of one host.
+     */
+    static class Circuit {
+
+        private int failures;
+
+        private boolean open;
+
+        /**
+         * Returns {@code true} if the failure opened the circuit.
+         */
+        synchronized boolean failure(int threshold) {
+            failures++;
+            if (!open && failures >= threshold) {
+                open = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void success() {
+            failures = 0;
+        }
+
+        synchronized void close() {
+            failures = 0;
+            open = false;
+        }
+
+        synchronized boolean isOpen() {
+            return open;
+        }
+    }
+}
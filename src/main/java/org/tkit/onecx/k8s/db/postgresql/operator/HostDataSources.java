@@ -0,0 +1,146 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalConnectionFactoryConfigurationSupplier;
+import io.agroal.api.configuration.supplier.AgroalConnectionPoolConfigurationSupplier;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.api.security.NamePrincipal;
+import io.agroal.api.security.SimplePassword;
+
+/**
+ * Admin datasources of the managed PostgreSQL servers. The default datasource serves the configured host,
+ * the datasources of the additional hosts are created on the first access.
+ */
+@ApplicationScoped
+public class HostDataSources {
+
+    private static final Logger log = LoggerFactory.getLogger(HostDataSources.class);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    DatabaseConfig config;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    String databaseAdmin;
+
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Check if the host is managed by the operator.
+     *
+     * @param host the host of the CR spec
+     * @return {@code true} if the host is managed
+     */
+    public boolean contains(String host) {
+        return config.host().equals(host) || config.hosts().containsKey(host);
+    }
+
+    /**
+     * Returns the hosts with an existing admin datasource, the default host and the additional hosts
+     * accessed so far.
+     *
+     * @return the hosts of the CR spec
+     */
+    public Set<String> created() {
+        Set<String> result = new LinkedHashSet<>();
+        result.add(config.host());
+        result.addAll(hosts.keySet());
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of connections of the host admin datasource without creating the datasource.
+     *
+     * @param host the host of the CR spec
+     * @return the maximum pool size of the host admin datasource
+     */
+    public int maxSize(String host) {
+        if (config.host().equals(host)) {
+            return dataSource.getConfiguration().connectionPoolConfiguration().maxSize();
+        }
+        DatabaseConfig.HostConfig hostConfig = config.hosts().get(host);
+        if (hostConfig == null) {
+            throw new IllegalArgumentException("Host '" + host + "' is not configured");
+        }
+        return hostConfig.maxSize();
+    }
+
+    /**
+     * Returns the admin datasource of the host and creates it on the first access.
+     *
+     * @param host the host of the CR spec
+     * @return the host admin datasource
+     * @throws SQLException if the creation of the datasource failed
+     */
+    public Host get(String host) throws SQLException {
+        if (config.host().equals(host)) {
+            return new Host(dataSource, databaseAdmin);
+        }
+        Host result = hosts.get(host);
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            result = hosts.get(host);
+            if (result == null) {
+                DatabaseConfig.HostConfig hostConfig = config.hosts().get(host);
+                if (hostConfig == null) {
+                    throw new IllegalArgumentException("Host '" + host + "' is not configured");
+                }
+                result = new Host(createDataSource(hostConfig), hostConfig.username());
+                hosts.put(host, result);
+                log.info("Create admin datasource for host '{}'", host);
+            }
+            return result;
+        }
+    }
+
+    @PreDestroy
+    void closeAll() {
+        hosts.values().forEach(h -> h.dataSource().close());
+        hosts.clear();
+    }
+
+    private AgroalDataSource createDataSource(DatabaseConfig.HostConfig hostConfig) throws SQLException {
+
+        AgroalDataSourceConfigurationSupplier dataSourceConfiguration = new AgroalDataSourceConfigurationSupplier();
+        dataSourceConfiguration.connectionPoolConfiguration(dataSource.getConfiguration().connectionPoolConfiguration());
+
+        AgroalConnectionPoolConfigurationSupplier poolConfiguration = dataSourceConfiguration.connectionPoolConfiguration();
+        poolConfiguration.initialSize(hostConfig.minSize());
+        poolConfiguration.minSize(hostConfig.minSize());
+        poolConfiguration.maxSize(hostConfig.maxSize());
+
+        AgroalConnectionFactoryConfigurationSupplier connectionFactoryConfiguration = poolConfiguration
+                .connectionFactoryConfiguration();
+        connectionFactoryConfiguration.jdbcUrl(hostConfig.jdbcUrl());
+        connectionFactoryConfiguration.credential(new NamePrincipal(hostConfig.username()));
+        connectionFactoryConfiguration.credential(new SimplePassword(hostConfig.password()));
+        return AgroalDataSource.from(dataSourceConfiguration.get());
+    }
+
+    /**
+     * Admin datasource of the host.
+     *
+     * @param dataSource the admin datasource
+     * @param admin the admin user name
+     */
+    public record Host(AgroalDataSource dataSource, String admin) {
+    }
+}
@@ -0,0 +1,76 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Limits the rate of the reconciles which change the PostgreSQL host. New database resources have priority,
+ * a part of the rate is reserved for them and the resync of existing resources could not use it.
+ */
+@ApplicationScoped
+public class HostRateLimiter {
+
+    @Inject
+    DatabaseConfig config;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Try to take a reconcile token for the host without waiting.
+     *
+     * @param host the PostgreSQL host
+     * @param priority {@code true} for new database resources
+     * @return zero if the token was taken, otherwise the nanoseconds to wait for the next token
+     */
+    public long tryAcquire(String host, boolean priority) {
+        DatabaseConfig.RateLimitConfig rateLimit = config.reconcileConfig().rateLimitConfig();
+        if (rateLimit.opsPerSecond() <= 0) {
+            return 0;
+        }
+        Bucket bucket = buckets.computeIfAbsent(host,
+                h -> new Bucket(rateLimit.opsPerSecond(), rateLimit.newResourceReserve()));
+        return bucket.tryAcquire(System.nanoTime(), priority);
+    }
+
+    /**
+     * Token bucket of one host. The capacity is the rate of one second.
+     */
+    static class Bucket {
+
+        private final double rate;
+
+        private final double capacity;
+
+        private final double reserve;
+
+        private double tokens;
+
+        private long refilled;
+
+        Bucket(double rate, double reserve) {
+            this.rate = rate;
+            this.capacity = Math.max(1, rate);
+            this.reserve = capacity * Math.min(Math.max(reserve, 0), 1);
+            this.tokens = capacity;
+            this.refilled = System.nanoTime();
+        }
+
+        synchronized long tryAcquire(long now, boolean priority) {
+            if (now > refilled) {
+                tokens = Math.min(capacity, tokens + (now - refilled) * rate / TimeUnit.SECONDS.toNanos(1));
+                refilled = now;
+            }
+
+            double required = priority ? 1 : Math.min(capacity, 1 + reserve);
+            if (tokens >= required) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((required - tokens) / rate * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import io.javaoperatorsdk.operator.OperatorException;
+import io.javaoperatorsdk.operator.api.reconciler.EventSourceContext;
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.ResourceID;
+import io.javaoperatorsdk.operator.processing.event.source.AbstractEventSource;
+
+/**
+ * Event source which triggers the reconcile of the not created database resources of a recovered host.
+ * The resources are reconciled in batches to ramp up the load of the host.
+ */
+public class HostRecoveryEventSource extends AbstractEventSource<Void, Database> {
+
+    private final HostCircuitBreaker circuitBreaker;
+
+    private final EventSourceContext<Database> context;
+
+    private final DatabaseConfig.CircuitBreakerConfig config;
+
+    private final Consumer<String> listener = this::hostRecovered;
+
+    private ScheduledExecutorService executor;
+
+    public HostRecoveryEventSource(HostCircuitBreaker circuitBreaker, EventSourceContext<Database> context,
+            DatabaseConfig.CircuitBreakerConfig config) {
+        super(Void.class, "host-recovery-event-source");
+        this.circuitBreaker = circuitBreaker;
+        this.context = context;
+        this.config = config;
+    }
+
+    @Override
+    public void start() throws OperatorException {
+        super.start();
+        executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "database-host-recovery"));
+        circuitBreaker.addListener(listener);
+    }
+
+    @Override
+    public void stop() throws OperatorException {
+        circuitBreaker.removeListener(listener);
+        executor.shutdownNow();
+        super.stop();
+    }
+
+    @Override
+    public Set<Void> getSecondaryResources(Database primary) {
+        return Set.of();
+    }
+
+    private void hostRecovered(String host) {
+        if (!isRunning()) {
+            return;
+        }
+        List<ResourceID> ids = context.getPrimaryCache()
+                .list(d -> d.getSpec() != null && host.equals(d.getSpec().getHost()) && !isCreated(d))
+                .map(ResourceID::fromResource)
+                .toList();
+
+        int batchSize = Math.max(1, config.recoveryBatchSize());
+        long interval = config.recoveryInterval().toMillis();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<ResourceID> batch = ids.subList(i, Math.min(i + batchSize, ids.size()));
+            executor.schedule(() -> {
+                if (isRunning()) {
+                    batch.forEach(id -> getEventHandler().handleEvent(new Event(id)));
+                }
+            }, i / batchSize * interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isCreated(Database database) {
+        return database.getStatus() != null && database.getStatus().getStatus() == DatabaseStatus.Status.CREATED;
+    }
+}
@@ -0,0 +1,114 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * Quoting of the SQL identifiers with the semantics of the PostgreSQL {@code quote_ident} function. Lower-case
+ * names which are not keywords are kept, all other names are quoted. The result is equal to the names stored by
+ * the server, for example in the settings of {@code pg_db_role_setting}.
+ */
+final class Identifiers {
+
+    /**
+     * SQL state of the invalid names.
+     */
+    static final String SQL_STATE_INVALID_NAME = "42602";
+
+    /**
+     * Maximum length of the names in bytes, longer names are truncated by the server.
+     */
+    static final int MAX_LENGTH = 63;
+
+    private static final Pattern SAFE = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final Pattern UNQUOTED = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+
+    /**
+     * Reserved, column name and type or function name keywords of the server, they are quoted by
+     * {@code quote_ident}.
+     */
+    private static final Set<String> KEYWORDS = Set.of("all", "analyse", "analyze", "and", "any", "array", "as",
+            "asc", "asymmetric", "authorization", "between", "bigint", "binary", "bit", "boolean", "both", "case", "cast",
+            "char", "character", "check", "coalesce", "collate", "collation", "column", "concurrently", "constraint",
+            "create", "cross", "current_catalog", "current_date", "current_role", "current_schema", "current_time",
+            "current_timestamp", "current_user", "dec", "decimal", "default", "deferrable", "desc", "distinct", "do",
+            "else", "end", "except", "exists", "extract", "false", "fetch", "float", "for", "foreign", "freeze", "from",
+            "full", "grant", "greatest", "group", "grouping", "having", "ilike", "in", "initially", "inner", "inout",
+            "int", "integer", "intersect", "interval", "into", "is", "isnull", "join", "json", "json_array",
+            "json_arrayagg", "json_exists", "json_object", "json_objectagg", "json_query", "json_scalar",
+            "json_serialize", "json_table", "json_value", "lateral", "leading", "least", "left", "like", "limit",
+            "localtime", "localtimestamp", "merge_action", "national", "natural", "nchar", "none", "normalize", "not",
+            "notnull", "null", "nullif", "numeric", "offset", "on", "only", "or", "order", "out", "outer", "overlaps",
+            "overlay", "placing", "position", "precision", "primary", "real", "references", "returning", "right", "row",
+            "select", "session_user", "setof", "similar", "smallint", "some", "substring", "symmetric", "system_user",
+            "table", "tablesample", "then", "time", "timestamp", "to", "trailing", "treat", "trim", "true", "union",
+            "unique", "user", "using", "values", "varchar", "variadic", "verbose", "when", "where", "window", "with",
+            "xmlattributes", "xmlconcat", "xmlelement", "xmlexists", "xmlforest", "xmlnamespaces", "xmlparse", "xmlpi",
+            "xmlroot", "xmlserialize", "xmltable");
+
+    private Identifiers() {
+    }
+
+    /**
+     * Check if the name could be used as identifier without truncation.
+     *
+     * @param name the name of the user, database, schema or extension
+     * @return {@code false} if the name is empty, too long or contains the null character
+     */
+    static boolean isValid(String name) {
+        return name != null && !name.isEmpty() && name.indexOf('\0') < 0
+                && name.getBytes(StandardCharsets.UTF_8).length <= MAX_LENGTH;
+    }
+
+    /**
+     * Quote the exact name like {@code quote_ident}.
+     *
+     * @param name the name of the user, database, schema or extension
+     * @return the name or the quoted name
+     * @throws SQLException if the name is not valid
+     */
+    static String quote(String name) throws SQLException {
+        if (!isValid(name)) {
+            throw new SQLException("Invalid name: " + name, SQL_STATE_INVALID_NAME);
+        }
+        if (SAFE.matcher(name).matches() && !KEYWORDS.contains(name)) {
+            return name;
+        }
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Quote the schema names of the comma separated search path. Unquoted identifiers are folded to lower case
+     * like the server does, quoted names and the other names are kept as they are.
+     *
+     * @param searchPath the search path of the user
+     * @return the search path with the quoted schema names
+     * @throws SQLException if a name is not valid or a quoted name is not terminated
+     */
+    static String quoteSearchPath(String searchPath) throws SQLException {
+        StringJoiner result = new StringJoiner(", ");
+        for (String schema : searchPath.split(",", -1)) {
+            result.add(quote(schemaName(schema.trim())));
+        }
+        return result.toString();
+    }
+
+    private static String schemaName(String schema) throws SQLException {
+        if (schema.length() > 1 && schema.startsWith("\"") && schema.endsWith("\"")) {
+            String name = schema.substring(1, schema.length() - 1);
+            if (name.replace("\"\"", "").indexOf('"') < 0) {
+                return name.replace("\"\"", "\"");
+            }
+        } else if (UNQUOTED.matcher(schema).matches()) {
+            return schema.toLowerCase(Locale.ROOT);
+        } else if (schema.indexOf('"') < 0) {
+            return schema;
+        }
+        throw new SQLException("Invalid schema name: " + schema, SQL_STATE_INVALID_NAME);
+    }
+}
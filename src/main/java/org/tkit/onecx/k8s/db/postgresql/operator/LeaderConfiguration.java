@@ -2,13 +2,35 @@ package org.tkit.onecx.k8s.db.postgresql.operator;
 
 import jakarta.inject.Singleton;
 
+import io.fabric8.kubernetes.client.extended.leaderelection.LeaderCallbacks;
 import io.javaoperatorsdk.operator.api.config.LeaderElectionConfiguration;
 
 @Singleton
 public class LeaderConfiguration extends LeaderElectionConfiguration {
 
     @SuppressWarnings("java:S5738")
-    public LeaderConfiguration(DatabaseConfig config) {
-        super(config.leaderElectionConfig().leaseName());
+    public LeaderConfiguration(DatabaseConfig config, ShardManager shardManager, CatalogWarmup catalogWarmup) {
+        super(leaseName(config, shardManager), null, LEASE_DURATION_DEFAULT_VALUE, RENEW_DEADLINE_DEFAULT_VALUE,
+                RETRY_PERIOD_DEFAULT_VALUE, null, leaderCallbacks(catalogWarmup), true);
+    }
+
+    /**
+     * In the sharding mode every replica is active and the work is distributed by the shard leases.
+     * Every replica gets its own leader lease, it expires after shutdown and is deleted by the other replicas.
+     */
+    private static String leaseName(DatabaseConfig config, ShardManager shardManager) {
+        if (config.shardingConfig().enabled()) {
+            return shardManager.leaderLeaseName();
+        }
+        return config.leaderElectionConfig().leaseName();
+    }
+
+    /**
+     * The new leader loads the catalog snapshots before the event processing of the controllers is started.
+     */
+    private static LeaderCallbacks leaderCallbacks(CatalogWarmup catalogWarmup) {
+        return new LeaderCallbacks(catalogWarmup::warmUp, () -> {
+        }, identity -> {
+        });
     }
 }
@@ -0,0 +1,66 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+import jakarta.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.javaoperatorsdk.operator.api.config.ConfigurationServiceOverrider;
+import io.quarkiverse.operatorsdk.runtime.api.ConfigurationServiceCustomizer;
+import io.quarkus.arc.Unremovable;
+
+@Singleton
+@Unremovable
+public class ReconcileConfiguration implements ConfigurationServiceCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconcileConfiguration.class);
+
+    private final DatabaseConfig config;
+
+    public ReconcileConfiguration(DatabaseConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public Consumer<ConfigurationServiceOverrider> overrider() {
+        return overrider -> {
+            config.reconcileConfig().threads().ifPresent(overrider::withConcurrentReconciliationThreads);
+            if (config.reconcileConfig().virtualThreads()) {
+                ExecutorService executor = createVirtualThreadExecutor();
+                if (executor != null) {
+                    log.info("Reconcile database resources on virtual threads.");
+                    overrider.withExecutorService(executor);
+                }
+            }
+        };
+    }
+
+    /**
+     * Create virtual thread per task executor. The executor is created by reflection because the
+     * virtual threads API is not available on the minimum supported Java version.
+     *
+     * @return the executor or {@code null} if virtual threads are not supported
+     */
+    static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder$OfVirtual")
+                    .getMethod("name", String.class, long.class)
+                    .invoke(builder, "database-reconciler-", 0L);
+            ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory")
+                    .invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not supported by Java {}, use the reconcile thread pool.",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+}
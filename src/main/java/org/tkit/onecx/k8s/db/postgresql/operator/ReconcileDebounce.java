@@ -0,0 +1,84 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.javaoperatorsdk.operator.processing.event.ResourceID;
+
+/**
+ * Debounce window of the database resources. The first reconcile which would change the database opens the window,
+ * the events of the resource within the window are coalesced into one reconcile at the end of the window. The ended
+ * window is kept until the database was changed, the rescheduled reconciles of the resource are not delayed again.
+ */
+@ApplicationScoped
+public class ReconcileDebounce {
+
+    /**
+     * Minimum number of windows before the windows of the deleted resources are removed.
+     */
+    static final int PRUNE_SIZE = 100;
+
+    @Inject
+    DatabaseConfig config;
+
+    private final Map<ResourceID, Long> windows = new ConcurrentHashMap<>();
+
+    private volatile int pruneSize = PRUNE_SIZE;
+
+    /**
+     * Open or check the debounce window of the database resource.
+     *
+     * @param id the database resource id
+     * @param exists check if the database resource still exists
+     * @return zero if the reconcile could be executed, otherwise the nanoseconds until the end of the window
+     */
+    public long delay(ResourceID id, Predicate<ResourceID> exists) {
+        return delay(id, exists, System.nanoTime());
+    }
+
+    long delay(ResourceID id, Predicate<ResourceID> exists, long now) {
+        long window = config.reconcileConfig().debounce().toNanos();
+        if (window <= 0) {
+            return 0;
+        }
+        Long start = windows.putIfAbsent(id, now);
+        if (start == null) {
+            prune(exists);
+            return window;
+        }
+        return Math.max(0, start + window - now);
+    }
+
+    /**
+     * Remove the debounce window after the database was changed or the resource was deleted.
+     *
+     * @param id the database resource id
+     */
+    public void remove(ResourceID id) {
+        windows.remove(id);
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    /**
+     * Remove the windows of the deleted database resources. The windows are checked when their number doubled
+     * since the last check.
+     */
+    private void prune(Predicate<ResourceID> exists) {
+        if (windows.size() <= pruneSize) {
+            return;
+        }
+        synchronized (this) {
+            if (windows.size() > pruneSize) {
+                windows.keySet().removeIf(exists.negate());
+                pruneSize = Math.max(PRUNE_SIZE, 2 * windows.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.postgresql.util.PasswordUtil;
+
+/**
+ * Client side SCRAM-SHA-256 verifiers of the user passwords. The server stores the verifier and does not hash
+ * the password, the plain password is not part of the executed statements. The last verified or set password of
+ * every host and user is cached to skip the lookup of the stored verifier on the next reconcile. The cached
+ * password expires after the verified TTL, then the stored verifier is checked again.
+ */
+@ApplicationScoped
+public class ScramVerifiers {
+
+    /**
+     * Prefix of the PostgreSQL SCRAM-SHA-256 verifier {@code SCRAM-SHA-256$<iterations>:<salt>$<StoredKey>:<ServerKey>}.
+     */
+    static final String PREFIX = "SCRAM-SHA-256$";
+
+    @Inject
+    DatabaseConfig config;
+
+    private final Map<Key, Entry> verified = new ConcurrentHashMap<>();
+
+    private final Set<String> unreadable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Create a new verifier with a random salt.
+     *
+     * @param password the user password
+     * @return the SCRAM-SHA-256 verifier
+     */
+    public String create(byte[] password) {
+        return PasswordUtil.encodeScramSha256(new String(password, StandardCharsets.UTF_8).toCharArray());
+    }
+
+    /**
+     * Check if the password was already verified or set for the user.
+     *
+     * @param host the host of the CR spec
+     * @param user the database user
+     * @param password the user password
+     * @return {@code true} if the cached password of the user is the same and not expired
+     */
+    public boolean isVerified(String host, String user, byte[] password) {
+        Key key = new Key(host, user);
+        Entry entry = verified.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (System.nanoTime() - entry.verified >= config.secretConfig().verifiedTtl().toNanos()) {
+            // check the stored verifier again
+            verified.remove(key, entry);
+            return false;
+        }
+        return MessageDigest.isEqual(entry.fingerprint, fingerprint(password));
+    }
+
+    /**
+     * Cache the verifier set for the user.
+     *
+     * @param host the host of the CR spec
+     * @param user the database user
+     * @param password the user password
+     * @param verifier the verifier of the password
+     */
+    public void verified(String host, String user, byte[] password, String verifier) {
+        verified.put(new Key(host, user), new Entry(verifier, fingerprint(password), System.nanoTime()));
+    }
+
+    /**
+     * Remove the cached password of the user.
+     *
+     * @param host the host of the CR spec
+     * @param user the database user
+     */
+    public void invalidate(String host, String user) {
+        verified.remove(new Key(host, user));
+    }
+
+    /**
+     * Check if the stored verifiers of the host could be read by the admin.
+     *
+     * @param host the host of the CR spec
+     * @return {@code false} if the admin has no permission to read the stored verifiers
+     */
+    public boolean isReadable(String host) {
+        return !unreadable.contains(host);
+    }
+
+    /**
+     * Mark the stored verifiers of the host as not readable by the admin.
+     *
+     * @param host the host of the CR spec
+     */
+    public void unreadable(String host) {
+        unreadable.add(host);
+    }
+
+    /**
+     * Check if the password matches the stored verifier of the user.
+     *
+     * @param host the host of the CR spec
+     * @param user the database user
+     * @param password the user password
+     * @param stored the stored verifier of the user or {@code null}
+     * @return {@code true} if the stored verifier was created for the password
+     */
+    public boolean matches(String host, String user, byte[] password, String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return false;
+        }
+        Key key = new Key(host, user);
+        byte[] fingerprint = fingerprint(password);
+        Entry entry = verified.get(key);
+        if (entry != null && entry.verifier.equals(stored) && MessageDigest.isEqual(entry.fingerprint, fingerprint)) {
+            verified.put(key, new Entry(stored, fingerprint, System.nanoTime()));
+            return true;
+        }
+        String verifier = encode(password, stored);
+        if (stored.equals(verifier)) {
+            verified.put(key, new Entry(stored, fingerprint, System.nanoTime()));
+            return true;
+        }
+        verified.remove(key);
+        return false;
+    }
+
+    /**
+     * Encode the password with the iterations and salt of the stored verifier.
+     *
+     * @return the verifier or {@code null} if the stored verifier could not be parsed
+     */
+    static String encode(byte[] password, String stored) {
+        String[] parts = stored.substring(PREFIX.length()).split("[$:]");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            return PasswordUtil.encodeScramSha256(new String(password, StandardCharsets.UTF_8).toCharArray(), iterations,
+                    salt);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static byte[] fingerprint(byte[] password) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(password);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Key(String host, String user) {
+    }
+
+    private record Entry(String verifier, byte[] fingerprint, long verified) {
+    }
+}
@@ -0,0 +1,57 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import io.javaoperatorsdk.operator.OperatorException;
+import io.javaoperatorsdk.operator.api.reconciler.EventSourceContext;
+import io.javaoperatorsdk.operator.processing.event.Event;
+import io.javaoperatorsdk.operator.processing.event.ResourceID;
+import io.javaoperatorsdk.operator.processing.event.source.AbstractEventSource;
+
+/**
+ * Event source which triggers the reconcile of the database resources of a shard claimed by this replica.
+ */
+public class ShardEventSource extends AbstractEventSource<Void, Database> {
+
+    private final ShardManager shardManager;
+
+    private final EventSourceContext<Database> context;
+
+    private final int shards;
+
+    private final IntConsumer listener = this::shardClaimed;
+
+    public ShardEventSource(ShardManager shardManager, EventSourceContext<Database> context, int shards) {
+        super(Void.class, "shard-event-source");
+        this.shardManager = shardManager;
+        this.context = context;
+        this.shards = shards;
+    }
+
+    @Override
+    public void start() throws OperatorException {
+        super.start();
+        shardManager.addListener(listener);
+    }
+
+    @Override
+    public void stop() throws OperatorException {
+        shardManager.removeListener(listener);
+        super.stop();
+    }
+
+    @Override
+    public Set<Void> getSecondaryResources(Database primary) {
+        return Set.of();
+    }
+
+    private void shardClaimed(int shard) {
+        if (!isRunning()) {
+            return;
+        }
+        context.getPrimaryCache().list(d -> ShardManager.shard(d.getMetadata().getNamespace(),
+                d.getMetadata().getName(), shards) == shard)
+                .forEach(d -> getEventHandler().handleEvent(new Event(ResourceID.fromResource(d))));
+    }
+}
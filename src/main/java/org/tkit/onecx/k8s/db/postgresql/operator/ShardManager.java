@@ -0,0 +1,311 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseSpec;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Shards of the database resources for the active-active reconcile. The resources are assigned to the shards
+ * by the hash of the namespace and name. Every replica holds a member lease and claims its fair share of the
+ * shard leases. Shards of a missing replica are claimed by the other replicas when the shard lease expired.
+ * The expired member and leader leases of the missing replicas are deleted.
+ */
+@ApplicationScoped
+public class ShardManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardManager.class);
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    KubernetesClient client;
+
+    private final String defaultIdentity = Optional.ofNullable(System.getenv("HOSTNAME"))
+            .orElseGet(() -> UUID.randomUUID().toString());
+
+    private final Map<Integer, Long> owned = new ConcurrentHashMap<>();
+
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService executor;
+
+    void onStart(@Observes StartupEvent event) {
+        DatabaseConfig.ShardingConfig sharding = config.shardingConfig();
+        if (!sharding.enabled()) {
+            return;
+        }
+        log.info("Start sharding identity: {} shards: {}", identity(), sharding.shards());
+        executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "database-shard-manager"));
+        long interval = sharding.renewInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::balance, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            owned.keySet().forEach(this::release);
+            owned.clear();
+            // the leader lease is renewed by the leader elector until the shutdown, it expires and is
+            // deleted by the other replicas
+            delete(memberLeaseName());
+        }
+    }
+
+    /**
+     * Returns the identity of the replica, by default the pod name.
+     *
+     * @return the replica identity
+     */
+    public String identity() {
+        return config.shardingConfig().identity().orElse(defaultIdentity);
+    }
+
+    /**
+     * Returns the name of the leader lease of this replica. In the sharding mode every replica is active
+     * and holds its own leader lease.
+     *
+     * @return the leader lease name
+     */
+    public String leaderLeaseName() {
+        return leasePrefix() + identity();
+    }
+
+    /**
+     * Check if the database resource is reconciled by this replica.
+     *
+     * @param database the database resource
+     * @return {@code true} if sharding is disabled or the replica holds the shard of the resource
+     */
+    public boolean owns(Database database) {
+        DatabaseConfig.ShardingConfig sharding = config.shardingConfig();
+        if (!sharding.enabled()) {
+            return true;
+        }
+        Long renewed = owned.get(shard(database.getMetadata().getNamespace(), database.getMetadata().getName(),
+                sharding.shards()));
+        return renewed != null && System.nanoTime() - renewed < sharding.leaseDuration().toNanos();
+    }
+
+    /**
+     * Add listener for the shards claimed by this replica.
+     *
+     * @param listener the shard listener
+     */
+    public void addListener(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove the shard listener.
+     *
+     * @param listener the shard listener
+     */
+    public void removeListener(IntConsumer listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Shard of the database resource.
+     *
+     * @param namespace the resource namespace
+     * @param name the resource name
+     * @param shards the number of shards
+     * @return the shard index
+     */
+    static int shard(String namespace, String name, int shards) {
+        return Math.floorMod((namespace + "/" + name).hashCode(), shards);
+    }
+
+    /**
+     * Fair share of the shards for one replica.
+     *
+     * @param shards the number of shards
+     * @param members the number of replicas
+     * @return the maximum number of shards of one replica
+     */
+    static int fairShare(int shards, int members) {
+        return (shards + members - 1) / members;
+    }
+
+    synchronized void balance() {
+        try {
+            DatabaseConfig.ShardingConfig sharding = config.shardingConfig();
+            ZonedDateTime now = ZonedDateTime.now();
+
+            Map<String, Lease> leases = new HashMap<>();
+            client.leases().inNamespace(client.getNamespace()).list().getItems()
+                    .forEach(l -> leases.put(l.getMetadata().getName(), l));
+
+            heartbeat(leases.get(memberLeaseName()), now);
+
+            Set<String> members = new HashSet<>();
+            members.add(identity());
+            String memberPrefix = leasePrefix() + "member-";
+            String shardPrefix = leasePrefix() + "shard-";
+            for (Lease lease : leases.values()) {
+                String name = lease.getMetadata().getName();
+                if (!name.startsWith(leasePrefix()) || name.startsWith(shardPrefix) || name.equals(leaderLeaseName())) {
+                    continue;
+                }
+                if (isExpired(lease, now)) {
+                    // replica is gone, delete its member and leader lease
+                    client.leases().inNamespace(client.getNamespace()).resource(lease).delete();
+                } else if (name.startsWith(memberPrefix)) {
+                    members.add(lease.getSpec().getHolderIdentity());
+                }
+            }
+            int share = fairShare(sharding.shards(), members.size());
+
+            // renew own shards and release the shards over the fair share
+            List<Integer> claimed = new ArrayList<>();
+            for (int shard = 0; shard < sharding.shards(); shard++) {
+                Lease lease = leases.get(shardLeaseName(shard));
+                if (lease != null && identity().equals(lease.getSpec().getHolderIdentity()) && !isExpired(lease, now)) {
+                    if (claimed.size() < share && update(lease, now)) {
+                        claimed.add(shard);
+                        owned.put(shard, System.nanoTime());
+                        continue;
+                    }
+                    release(shard);
+                }
+                owned.remove(shard);
+            }
+
+            // claim free shards up to the fair share
+            for (int shard = 0; shard < sharding.shards() && claimed.size() < share; shard++) {
+                Lease lease = leases.get(shardLeaseName(shard));
+                if ((lease == null || isExpired(lease, now)) && claim(shard, lease, now)) {
+                    claimed.add(shard);
+                    owned.put(shard, System.nanoTime());
+                    log.info("Claim shard: {} identity: {} members: {}", shard, identity(), members.size());
+                    int acquired = shard;
+                    listeners.forEach(l -> l.accept(acquired));
+                }
+            }
+        } catch (Exception ex) {
+            log.error("Error balance shards identity: {}", identity(), ex);
+        }
+    }
+
+    private void heartbeat(Lease lease, ZonedDateTime now) {
+        if (lease == null) {
+            create(memberLeaseName(), now);
+        } else {
+            update(lease, now);
+        }
+    }
+
+    private boolean claim(int shard, Lease lease, ZonedDateTime now) {
+        if (lease == null) {
+            return create(shardLeaseName(shard), now);
+        }
+        lease.getSpec().setAcquireTime(now);
+        lease.getSpec().setLeaseTransitions(Optional.ofNullable(lease.getSpec().getLeaseTransitions()).orElse(0) + 1);
+        return update(lease, now);
+    }
+
+    private void release(int shard) {
+        try {
+            Lease lease = client.leases().inNamespace(client.getNamespace()).withName(shardLeaseName(shard)).get();
+            if (lease != null && identity().equals(lease.getSpec().getHolderIdentity())) {
+                lease.getSpec().setHolderIdentity(null);
+                client.leases().inNamespace(client.getNamespace()).resource(lease).update();
+                log.info("Release shard: {} identity: {}", shard, identity());
+            }
+        } catch (KubernetesClientException ex) {
+            log.warn("Error release shard: {} identity: {} error: {}", shard, identity(), ex.getMessage());
+        }
+    }
+
+    private void delete(String name) {
+        try {
+            client.leases().inNamespace(client.getNamespace()).withName(name).delete();
+            log.info("Delete lease: {} identity: {}", name, identity());
+        } catch (KubernetesClientException ex) {
+            log.warn("Error delete lease: {} identity: {} error: {}", name, identity(), ex.getMessage());
+        }
+    }
+
+    private boolean create(String name, ZonedDateTime now) {
+        Lease lease = new Lease();
+        lease.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(client.getNamespace()).build());
+        lease.setSpec(new LeaseSpec());
+        lease.getSpec().setAcquireTime(now);
+        lease.getSpec().setLeaseTransitions(0);
+        try {
+            updateSpec(lease, now);
+            client.leases().inNamespace(client.getNamespace()).resource(lease).create();
+            return true;
+        } catch (KubernetesClientException ex) {
+            return conflict(name, ex);
+        }
+    }
+
+    private boolean update(Lease lease, ZonedDateTime now) {
+        try {
+            updateSpec(lease, now);
+            client.leases().inNamespace(client.getNamespace()).resource(lease).update();
+            return true;
+        } catch (KubernetesClientException ex) {
+            return conflict(lease.getMetadata().getName(), ex);
+        }
+    }
+
+    private void updateSpec(Lease lease, ZonedDateTime now) {
+        lease.getSpec().setHolderIdentity(identity());
+        lease.getSpec().setRenewTime(now);
+        lease.getSpec().setLeaseDurationSeconds((int) config.shardingConfig().leaseDuration().toSeconds());
+    }
+
+    private static boolean conflict(String name, KubernetesClientException ex) {
+        if (ex.getCode() == 409) {
+            // another replica changed the lease
+            log.debug("Lease '{}' changed by another replica", name);
+            return false;
+        }
+        throw ex;
+    }
+
+    private static boolean isExpired(Lease lease, ZonedDateTime now) {
+        LeaseSpec spec = lease.getSpec();
+        if (spec == null || spec.getHolderIdentity() == null || spec.getRenewTime() == null
+                || spec.getLeaseDurationSeconds() == null) {
+            return true;
+        }
+        return spec.getRenewTime().plusSeconds(spec.getLeaseDurationSeconds()).isBefore(now);
+    }
+
+    private String leasePrefix() {
+        return config.leaderElectionConfig().leaseName() + "-";
+    }
+
+    private String memberLeaseName() {
+        return leasePrefix() + "member-" + identity();
+    }
+
+    private String shardLeaseName(int shard) {
+        return leasePrefix() + "shard-" + shard;
+    }
+}
@@ -0,0 +1,269 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.*;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.agroal.api.AgroalDataSource;
+
+/**
+ * Bounded cache of the user datasources. The datasources are kept per host, database and user and are closed
+ * when they are idle, evicted or the user password changed. The admin datasources of the databases are bounded
+ * separately. The datasources are leased, an evicted datasource is closed when its last lease is released.
+ */
+@ApplicationScoped
+public class UserDataSourceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDataSourceCache.class);
+
+    private static final byte[] NO_PASSWORD = new byte[0];
+
+    @Inject
+    DatabaseConfig config;
+
+    private final Map<Key, Entry> users = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<Key, Entry> admins = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Lease the cached datasource for the host, database and user or create a new one with the factory.
+     * The cached datasource is replaced if the password changed.
+     *
+     * @param host the host of the CR spec
+     * @param database the database name
+     * @param user the database user
+     * @param password the user password
+     * @param factory the datasource factory
+     * @return the lease of the user datasource
+     * @throws SQLException if the creation of the datasource failed
+     */
+    public Lease get(String host, String database, String user, byte[] password, Factory factory) throws SQLException {
+        return get(users, config.userDataSourceConfig().cacheSize(), new Key(host, database, user), fingerprint(password),
+                factory);
+    }
+
+    /**
+     * Lease the cached admin datasource for the host and database or create a new one with the factory.
+     *
+     * @param host the host of the CR spec
+     * @param database the database name
+     * @param factory the datasource factory
+     * @return the lease of the admin datasource
+     * @throws SQLException if the creation of the datasource failed
+     */
+    public Lease getAdmin(String host, String database, Factory factory) throws SQLException {
+        return get(admins, config.userDataSourceConfig().adminCacheSize(), new Key(host, database, null), NO_PASSWORD,
+                factory);
+    }
+
+    /**
+     * Remove the datasource for the host, database and user. It is closed when the last lease is released.
+     *
+     * @param host the host of the CR spec
+     * @param database the database name
+     * @param user the database user
+     */
+    public void invalidate(String host, String database, String user) {
+        invalidate(users, new Key(host, database, user));
+    }
+
+    /**
+     * Remove the admin datasource for the host and database. It is closed when the last lease is released.
+     *
+     * @param host the host of the CR spec
+     * @param database the database name
+     */
+    public void invalidateAdmin(String host, String database) {
+        invalidate(admins, new Key(host, database, null));
+    }
+
+    synchronized int size() {
+        return users.size();
+    }
+
+    synchronized int adminSize() {
+        return admins.size();
+    }
+
+    @PreDestroy
+    void closeAll() {
+        List<AgroalDataSource> closed = new ArrayList<>();
+        synchronized (this) {
+            users.values().forEach(e -> closed.add(e.dataSource));
+            admins.values().forEach(e -> closed.add(e.dataSource));
+            users.clear();
+            admins.clear();
+        }
+        closed.forEach(AgroalDataSource::close);
+    }
+
+    private Lease get(Map<Key, Entry> cache, int max, Key key, byte[] fingerprint, Factory factory) throws SQLException {
+        // the datasources are created and closed outside the lock
+        List<AgroalDataSource> closed = new ArrayList<>();
+        try {
+            synchronized (this) {
+                evictIdle(System.nanoTime(), closed);
+                Entry entry = cache.get(key);
+                if (entry != null && MessageDigest.isEqual(entry.fingerprint, fingerprint)) {
+                    return lease(entry);
+                }
+                if (entry != null) {
+                    log.info("Password of user '{}' changed, close database '{}' user datasource.", key.user(),
+                            key.database());
+                    evict(cache.remove(key), closed);
+                }
+            }
+
+            AgroalDataSource dataSource = factory.create();
+            synchronized (this) {
+                Entry entry = cache.get(key);
+                if (entry != null && MessageDigest.isEqual(entry.fingerprint, fingerprint)) {
+                    // created by a concurrent reconcile
+                    closed.add(dataSource);
+                    return lease(entry);
+                }
+                if (entry != null) {
+                    evict(cache.remove(key), closed);
+                }
+                entry = new Entry(dataSource, fingerprint);
+                cache.put(key, entry);
+                evictOverflow(cache, max, closed);
+                return lease(entry);
+            }
+        } finally {
+            closed.forEach(AgroalDataSource::close);
+        }
+    }
+
+    private void invalidate(Map<Key, Entry> cache, Key key) {
+        List<AgroalDataSource> closed = new ArrayList<>();
+        synchronized (this) {
+            evict(cache.remove(key), closed);
+        }
+        closed.forEach(AgroalDataSource::close);
+    }
+
+    private Lease lease(Entry entry) {
+        entry.lastUsed = System.nanoTime();
+        entry.leases++;
+        return new Lease(entry);
+    }
+
+    private void release(Entry entry) {
+        boolean close;
+        synchronized (this) {
+            entry.leases--;
+            close = entry.evicted && entry.leases == 0;
+        }
+        if (close) {
+            entry.dataSource.close();
+        }
+    }
+
+    private void evictIdle(long now, List<AgroalDataSource> closed) {
+        long idleTimeout = config.userDataSourceConfig().idleTimeout().toNanos();
+        for (Map<Key, Entry> cache : List.of(users, admins)) {
+            Iterator<Entry> it = cache.values().iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                if (entry.leases == 0 && now - entry.lastUsed > idleTimeout) {
+                    it.remove();
+                    evict(entry, closed);
+                }
+            }
+        }
+    }
+
+    private static void evictOverflow(Map<Key, Entry> cache, int max, List<AgroalDataSource> closed) {
+        Iterator<Entry> it = cache.values().iterator();
+        while (cache.size() > max && it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            evict(entry, closed);
+        }
+    }
+
+    /**
+     * Mark the removed entry as evicted, the datasource without leases is closed.
+     */
+    private static void evict(Entry entry, List<AgroalDataSource> closed) {
+        if (entry != null) {
+            entry.evicted = true;
+            if (entry.leases == 0) {
+                closed.add(entry.dataSource);
+            }
+        }
+    }
+
+    private static byte[] fingerprint(byte[] password) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(password);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Factory of the user datasource.
+     */
+    @FunctionalInterface
+    public interface Factory {
+
+        AgroalDataSource create() throws SQLException;
+    }
+
+    /**
+     * Lease of a cached datasource. The datasource is not closed by the cache before the lease is released.
+     */
+    public class Lease implements AutoCloseable {
+
+        private final Entry entry;
+
+        private boolean released;
+
+        Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public AgroalDataSource dataSource() {
+            return entry.dataSource;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(entry);
+            }
+        }
+    }
+
+    private record Key(String host, String database, String user) {
+    }
+
+    private static class Entry {
+
+        private final AgroalDataSource dataSource;
+
+        private final byte[] fingerprint;
+
+        private long lastUsed;
+
+        private int leases;
+
+        private boolean evicted;
+
+        Entry(AgroalDataSource dataSource, byte[] fingerprint) {
+            this.dataSource = dataSource;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
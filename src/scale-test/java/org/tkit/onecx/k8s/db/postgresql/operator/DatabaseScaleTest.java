@@ -0,0 +1,168 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSource;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.javaoperatorsdk.operator.Operator;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Scale test which creates {@code scale.count} database resources with their secrets and waits until all of them
+ * are created. The test is executed only by the {@code scale-test} maven profile.
+ */
+@QuarkusTest
+class DatabaseScaleTest {
+
+    static final Logger log = Logger.getLogger(DatabaseScaleTest.class);
+
+    static final String LABEL = "onecx-scale-test";
+
+    static final int COUNT = Integer.getInteger("scale.count", 1000);
+
+    static final Duration TIMEOUT = Duration.ofSeconds(Long.getLong("scale.timeout", 600));
+
+    @Inject
+    Operator operator;
+
+    @Inject
+    KubernetesClient client;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void scaleTest() throws Exception {
+        operator.start();
+
+        String namespace = client.getNamespace();
+        Base64.Encoder encoder = Base64.getEncoder();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        AtomicLong connections = new AtomicLong();
+        AtomicLong heap = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            connections.accumulateAndGet(connections(), Math::max);
+            heap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 0, 200, TimeUnit.MILLISECONDS);
+
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < COUNT; i++) {
+                String name = "scale-" + i;
+
+                Secret secret = new Secret();
+                secret.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(namespace)
+                        .addToLabels(LABEL, "true").build());
+                secret.setData(Map.of("pk", encoder.encodeToString(("scale_password_" + i).getBytes())));
+                client.resource(secret).serverSideApply();
+
+                DatabaseSpec spec = new DatabaseSpec();
+                spec.setHost("postgresql");
+                spec.setName("scale_database_" + i);
+                spec.setUser("scale_user_" + i);
+                spec.setSchema("scale_user_" + i);
+                spec.setPasswordKey("pk");
+                spec.setPasswordSecrets(name);
+
+                Database database = new Database();
+                database.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(namespace)
+                        .addToLabels(LABEL, "true").build());
+                database.setSpec(spec);
+                client.resource(database).serverSideApply();
+            }
+            log.infof("Created %d database resources in %d ms", COUNT,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            await().pollDelay(Duration.ofSeconds(1)).pollInterval(Duration.ofSeconds(1)).atMost(TIMEOUT)
+                    .untilAsserted(() -> assertThat(created(namespace)).isEqualTo(COUNT));
+            long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            Timer timer = registry.get(DatabaseTelemetry.METRIC_RECONCILE).timer();
+            Map<Double, Double> percentiles = new TreeMap<>();
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+            }
+
+            log.infof("Scale test resources: %d, time to all created: %d ms, peak connections: %d, peak heap: %d MB, "
+                    + "reconciles: %d, reconcile p50: %.1f ms, p99: %.1f ms",
+                    COUNT, duration, connections.get(), heap.get() / (1024 * 1024), timer.count(),
+                    percentiles.get(0.5), percentiles.get(0.99));
+        } finally {
+            sampler.shutdownNow();
+        }
+    }
+
+    private int created(String namespace) {
+        return (int) client.resources(Database.class).inNamespace(namespace).withLabel(LABEL).list().getItems().stream()
+                .filter(d -> d.getStatus() != null && d.getStatus().getStatus() == DatabaseStatus.Status.CREATED)
+                .count();
+    }
+
+    private long connections() {
+        try (Connection con = dataSource.getConnection();
+                Statement stm = con.createStatement();
+                ResultSet rs = stm.executeQuery(
+                        "SELECT count(*) FROM pg_stat_activity WHERE backend_type = 'client backend'")) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (Exception ex) {
+            log.warnf("Error read connections from pg_stat_activity: %s", ex.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Publish the reconcile percentiles for the test report.
+     */
+    public static class PercentileProducer {
+
+        @Produces
+        @Singleton
+        MeterFilter reconcilePercentiles() {
+            return new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    if (DatabaseTelemetry.METRIC_RECONCILE.equals(id.getName())) {
+                        return DistributionStatisticConfig.builder().percentiles(0.5, 0.99).build().merge(config);
+                    }
+                    return config;
+                }
+            };
+        }
+    }
+}
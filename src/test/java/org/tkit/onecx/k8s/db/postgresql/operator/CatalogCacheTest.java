@@ -0,0 +1,64 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class CatalogCacheTest {
+
+    @Inject
+    CatalogCache cache;
+
+    @Inject
+    CatalogWarmup warmup;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    String databaseAdmin;
+
+    @Test
+    void snapshotTest() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            cache.invalidate("postgresql");
+            CatalogCache.Snapshot snapshot = cache.get("postgresql", connection);
+            assertThat(snapshot).isNotNull();
+            assertThat(snapshot.userExists(databaseAdmin)).isTrue();
+            assertThat(snapshot.databaseExists("postgres")).isTrue();
+            assertThat(snapshot.userExists("catalog_cache_user")).isFalse();
+            assertThat(snapshot.databaseExists("catalog_cache_db")).isFalse();
+            assertThat(cache.get("postgresql", connection)).isSameAs(snapshot);
+
+            cache.addUser("postgresql", "catalog_cache_user");
+            cache.addDatabase("postgresql", "catalog_cache_db");
+            assertThat(snapshot.userExists("catalog_cache_user")).isTrue();
+            assertThat(snapshot.databaseExists("catalog_cache_db")).isTrue();
+
+            cache.invalidate("postgresql");
+            CatalogCache.Snapshot reloaded = cache.get("postgresql", connection);
+            assertThat(reloaded).isNotSameAs(snapshot);
+            assertThat(reloaded.userExists("catalog_cache_user")).isFalse();
+        }
+    }
+
+    @Test
+    void warmUpTest() {
+        cache.invalidate("postgresql");
+        assertThat(cache.current("postgresql")).isNull();
+
+        warmup.warmUp();
+        CatalogCache.Snapshot snapshot = cache.current("postgresql");
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.userExists(databaseAdmin)).isTrue();
+    }
+}
@@ -0,0 +1,201 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.awaitility.Awaitility;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSource;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.javaoperatorsdk.operator.Operator;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(DatabaseCleanupTest.CustomProfile.class)
+class DatabaseCleanupTest {
+
+    static final Logger log = Logger.getLogger(DatabaseCleanupTest.class);
+
+    @Inject
+    Operator operator;
+
+    @Inject
+    KubernetesClient client;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @BeforeAll
+    static void init() {
+        Awaitility.setDefaultPollDelay(2, SECONDS);
+        Awaitility.setDefaultPollInterval(2, SECONDS);
+        Awaitility.setDefaultTimeout(10, SECONDS);
+    }
+
+    @Test
+    void dropDatabaseTest() {
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setName("cleanup_database");
+        spec.setUser("cleanup_user");
+        spec.setHost("postgresql");
+        spec.setSchema("cleanup_user");
+        spec.setPasswordKey("pk");
+        spec.setPasswordSecrets("cleanup-db");
+
+        operator.start();
+
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName("cleanup").withNamespace(client.getNamespace()).build());
+        database.setSpec(spec);
+
+        Secret secret = new Secret();
+        secret.setMetadata(new ObjectMetaBuilder().withName(spec.getPasswordSecrets())
+                .withNamespace(client.getNamespace()).build());
+        secret.setData(Map.of(spec.getPasswordKey(), Base64.getEncoder().encodeToString("cleanup_password".getBytes())));
+
+        log.infof("Creating test database object: %s", database);
+        client.resource(database).serverSideApply();
+        client.resource(secret).serverSideApply();
+
+        await().untilAsserted(() -> {
+            Database current = client.resource(database).get();
+            Assertions.assertNotNull(current.getStatus());
+            Assertions.assertEquals(DatabaseStatus.Status.CREATED, current.getStatus().getStatus());
+            Assertions.assertTrue(current.hasFinalizer(DatabaseCleanupController.FINALIZER_PREFIX + "postgresql"));
+            Assertions.assertTrue(exists("SELECT 1 FROM pg_database WHERE datname = ?", spec.getName()));
+        });
+
+        log.infof("Deleting test database object: %s", database);
+        client.resource(database).delete();
+
+        await().untilAsserted(() -> {
+            Assertions.assertNull(client.resource(database).get());
+            Assertions.assertFalse(exists("SELECT 1 FROM pg_database WHERE datname = ?", spec.getName()));
+            Assertions.assertFalse(exists("SELECT 1 FROM pg_user WHERE usename = ?", spec.getUser()));
+        });
+    }
+
+    @Test
+    void sharedUserTest() {
+        operator.start();
+
+        Database first = createDatabase("cleanup-shared-1", "cleanup_shared_database1", "cleanup_shared_user");
+        Database second = createDatabase("cleanup-shared-2", "cleanup_shared_database2", "cleanup_shared_user");
+
+        await().untilAsserted(() -> {
+            Assertions.assertTrue(exists("SELECT 1 FROM pg_database WHERE datname = ?", "cleanup_shared_database1"));
+            Assertions.assertTrue(exists("SELECT 1 FROM pg_database WHERE datname = ?", "cleanup_shared_database2"));
+        });
+
+        // the user of the other database resource is kept
+        client.resource(first).delete();
+        await().untilAsserted(() -> {
+            Assertions.assertNull(client.resource(first).get());
+            Assertions.assertFalse(exists("SELECT 1 FROM pg_database WHERE datname = ?", "cleanup_shared_database1"));
+            Assertions.assertTrue(exists("SELECT 1 FROM pg_user WHERE usename = ?", "cleanup_shared_user"));
+        });
+
+        client.resource(second).delete();
+        await().untilAsserted(() -> {
+            Assertions.assertNull(client.resource(second).get());
+            Assertions.assertFalse(exists("SELECT 1 FROM pg_database WHERE datname = ?", "cleanup_shared_database2"));
+            Assertions.assertFalse(exists("SELECT 1 FROM pg_user WHERE usename = ?", "cleanup_shared_user"));
+        });
+    }
+
+    private Database createDatabase(String name, String databaseName, String user) {
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setName(databaseName);
+        spec.setUser(user);
+        spec.setHost("postgresql");
+        spec.setPasswordKey("pk");
+        spec.setPasswordSecrets(name);
+
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(client.getNamespace()).build());
+        database.setSpec(spec);
+
+        Secret secret = new Secret();
+        secret.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(client.getNamespace()).build());
+        secret.setData(Map.of("pk", Base64.getEncoder().encodeToString("cleanup_shared_password".getBytes())));
+
+        client.resource(database).serverSideApply();
+        client.resource(secret).serverSideApply();
+        return database;
+    }
+
+    @Test
+    void updateFilterTest() {
+        DatabaseCleanupController.UpdateFilter filter = new DatabaseCleanupController.UpdateFilter();
+        Database old = new Database();
+        old.setMetadata(new ObjectMetaBuilder().withName("filter-db").withGeneration(1L).build());
+
+        Database changed = new Database();
+        changed.setMetadata(new ObjectMetaBuilder().withName("filter-db").withGeneration(2L).build());
+        Assertions.assertFalse(filter.accept(changed, old));
+
+        Database finalizer = new Database();
+        finalizer.setMetadata(new ObjectMetaBuilder().withName("filter-db").withGeneration(1L).build());
+        finalizer.addFinalizer(DatabaseCleanupController.FINALIZER_PREFIX + "postgresql");
+        Assertions.assertTrue(filter.accept(finalizer, old));
+
+        Database deleted = new Database();
+        deleted.setMetadata(new ObjectMetaBuilder().withName("filter-db").withGeneration(1L)
+                .withDeletionTimestamp("2024-01-01T00:00:00Z").build());
+        Assertions.assertTrue(filter.accept(deleted, old));
+    }
+
+    @Test
+    void finalizerTest() {
+        Assertions.assertEquals("databases.onecx.tkit.org/postgresql", DatabaseCleanupController.finalizer("postgresql"));
+        Assertions.assertEquals("databases.onecx.tkit.org/db-1.local", DatabaseCleanupController.finalizer("db-1.local"));
+
+        String pattern = "databases\\.onecx\\.tkit\\.org/[a-z0-9]([a-z0-9._-]{0,61}[a-z0-9])?";
+        String upper = DatabaseCleanupController.finalizer("PostgreSQL");
+        String lower = DatabaseCleanupController.finalizer("postgresql_");
+        String other = DatabaseCleanupController.finalizer("postgresql:");
+        String empty = DatabaseCleanupController.finalizer("__");
+        String longHost = DatabaseCleanupController.finalizer("h".repeat(100));
+        for (String finalizer : List.of(upper, lower, other, empty, longHost)) {
+            Assertions.assertTrue(finalizer.matches(pattern), finalizer);
+        }
+        Assertions.assertTrue(upper.startsWith("databases.onecx.tkit.org/postgresql-"));
+        Assertions.assertNotEquals(lower, other);
+        Assertions.assertNotEquals(longHost, DatabaseCleanupController.finalizer("h".repeat(101)));
+    }
+
+    private boolean exists(String sql, String name) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("onecx.k8s.db.postgresql.operator.cleanup.enabled", "true");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class DatabaseControllerTest {
+
+    @Inject
+    DatabaseController controller;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void fingerprintTest() {
+        DatabaseSpec spec = create(List.of("seg", "cube"));
+        Secret secret = createSecret("uid-1", "1");
+
+        String fingerprint = DatabaseController.createFingerprint(spec, secret);
+        assertThat(fingerprint).isNotBlank()
+                .isEqualTo(DatabaseController.createFingerprint(create(List.of("seg", "cube")), createSecret("uid-1", "1")))
+                .isNotEqualTo(DatabaseController.createFingerprint(spec, createSecret("uid-1", "2")))
+                .isNotEqualTo(DatabaseController.createFingerprint(spec, createSecret("uid-2", "1")))
+                .isNotEqualTo(DatabaseController.createFingerprint(create(List.of("seg")), secret))
+                .isNotEqualTo(DatabaseController.createFingerprint(create(null), secret));
+
+        spec.setSchema("other_schema");
+        assertThat(DatabaseController.createFingerprint(spec, secret)).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    void secretIndexTest() {
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName("index-db").withNamespace("ns-1").build());
+        assertThat(DatabaseController.secretIndex(database)).isEmpty();
+
+        database.setSpec(create(null));
+        assertThat(DatabaseController.secretIndex(database))
+                .containsExactly(DatabaseController.secretIndexKey("ns-1", "fingerprint-db"))
+                .doesNotContain(DatabaseController.secretIndexKey("ns-2", "fingerprint-db"));
+
+        database.getSpec().setPasswordSecrets(null);
+        assertThat(DatabaseController.secretIndex(database)).isEmpty();
+    }
+
+    @Test
+    void updateFilterTest() {
+        DatabaseController.UpdateFilter filter = new DatabaseController.UpdateFilter();
+        Database old = createDatabase(1L);
+
+        // status only change
+        Database status = createDatabase(1L);
+        status.setStatus(new DatabaseStatus());
+        assertThat(filter.accept(status, old)).isFalse();
+
+        // metadata only change
+        Database labels = createDatabase(1L);
+        labels.getMetadata().setLabels(Map.of("label", "value"));
+        assertThat(filter.accept(labels, old)).isFalse();
+
+        assertThat(filter.accept(createDatabase(2L), old)).isTrue();
+
+        Database noSpec = createDatabase(2L);
+        noSpec.setSpec(null);
+        assertThat(filter.accept(noSpec, old)).isFalse();
+    }
+
+    @Test
+    void validateNamesTest() throws Exception {
+        DatabaseSpec spec = create(List.of("seg"));
+        DatabaseController.validateNames(spec);
+
+        spec.setUserSearchPath("public\"; DROP DATABASE x; --");
+        assertThatThrownBy(() -> DatabaseController.validateNames(spec))
+                .isInstanceOf(DatabaseController.InvalidNameException.class);
+
+        spec.setUserSearchPath(null);
+        spec.setExtensions(List.of(""));
+        assertThatThrownBy(() -> DatabaseController.validateNames(spec))
+                .isInstanceOf(DatabaseController.InvalidNameException.class)
+                .hasMessageStartingWith("Invalid extension name ''");
+    }
+
+    @Test
+    void isNewTest() {
+        Database database = createDatabase(1L);
+        assertThat(DatabaseController.isNew(database)).isTrue();
+
+        database.setStatus(new DatabaseStatus());
+        database.getStatus().setStatus(DatabaseStatus.Status.CREATED);
+        assertThat(DatabaseController.isNew(database)).isTrue();
+
+        DatabaseController.updateStatusPojo(database, "fingerprint");
+        assertThat(DatabaseController.isNew(database)).isFalse();
+    }
+
+    @Test
+    void statusEqualsTest() {
+        Database database = createDatabase(1L);
+        DatabaseController.updateStatusPojo(database, "fingerprint");
+        DatabaseStatus status = database.getStatus();
+
+        DatabaseController.updateStatusPojo(database, "fingerprint");
+        assertThat(database.getStatus()).isNotSameAs(status).isEqualTo(status).hasSameHashCodeAs(status);
+
+        DatabaseController.updateStatusPojo(database, "new_fingerprint");
+        assertThat(database.getStatus()).isNotEqualTo(status);
+
+        database.getMetadata().setGeneration(2L);
+        DatabaseController.updateStatusPojo(database, "fingerprint");
+        assertThat(database.getStatus()).isNotEqualTo(status);
+    }
+
+    @Test
+    void errorStatusElidedTest() {
+        Database database = createDatabase(1L);
+        double elided = registry.counter(DatabaseTelemetry.METRIC_STATUS_PATCH_ELIDED).count();
+
+        assertThat(controller.updateErrorStatus(database, null, new Exception("error")).getResource()).isPresent();
+        assertThat(controller.updateErrorStatus(database, null, new Exception("error")).getResource()).isEmpty();
+        assertThat(registry.counter(DatabaseTelemetry.METRIC_STATUS_PATCH_ELIDED).count()).isEqualTo(elided + 1);
+
+        assertThat(controller.updateErrorStatus(database, null, new Exception("other error")).getResource()).isPresent();
+    }
+
+    private static Database createDatabase(Long generation) {
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName("filter-db").withNamespace("ns-1")
+                .withGeneration(generation).build());
+        database.setSpec(create(null));
+        return database;
+    }
+
+    private static Secret createSecret(String uid, String resourceVersion) {
+        Secret secret = new Secret();
+        secret.setMetadata(new ObjectMetaBuilder().withName("fingerprint-db").withNamespace("ns-1").withUid(uid)
+                .withResourceVersion(resourceVersion).build());
+        secret.setData(Map.of("pk", "cGFzc3dvcmQ="));
+        return secret;
+    }
+
+    private static DatabaseSpec create(List<String> extensions) {
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setName("fingerprint_db");
+        spec.setUser("fingerprint_user");
+        spec.setHost("postgresql");
+        spec.setSchema("fingerprint_schema");
+        spec.setPasswordKey("pk");
+        spec.setPasswordSecrets("fingerprint-db");
+        spec.setExtensions(extensions);
+        return spec;
+    }
+}
@@ -0,0 +1,38 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.javaoperatorsdk.operator.Operator;
+import io.javaoperatorsdk.operator.RegisteredController;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(DatabaseNamespacesTest.CustomProfile.class)
+class DatabaseNamespacesTest {
+
+    @Inject
+    Operator operator;
+
+    @Test
+    void namespacesTest() {
+        RegisteredController<?> controller = operator.getRegisteredController("database").orElseThrow();
+        assertThat(controller.getConfiguration().getInformerConfig().getNamespaces())
+                .containsExactlyInAnyOrder("default", "onecx-tenant");
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("onecx.k8s.db.postgresql.operator.namespaces", "default,onecx-tenant");
+        }
+    }
+}
@@ -6,6 +6,8 @@ import static org.awaitility.Awaitility.await;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.*;
 import java.util.stream.Stream;
 
@@ -40,6 +42,9 @@ class DatabaseSchemaTest {
     @Inject
     KubernetesClient client;
 
+    @Inject
+    HostCircuitBreaker hostCircuitBreaker;
+
     @BeforeAll
     static void init() {
         Awaitility.setDefaultPollDelay(2, SECONDS);
@@ -121,6 +126,8 @@ class DatabaseSchemaTest {
             });
         });
 
+        // the cleanup is disabled, the database resource does not get a finalizer
+        Assertions.assertTrue(client.resource(database).get().getFinalizers().isEmpty());
     }
 
     private static Connection createConnection(String user, String password, String database) throws Exception {
@@ -397,6 +404,44 @@ class DatabaseSchemaTest {
 
     }
 
+    @Test
+    void databaseSpecInvalidNameTest() {
+
+        String name = "invalid-name-1";
+        String user = "invalid_name_user_" + "x".repeat(Identifiers.MAX_LENGTH);
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setName("invalid_name_database");
+        spec.setUser(user);
+        spec.setHost("postgresql");
+        spec.setPasswordKey("pk");
+        spec.setPasswordSecrets(name);
+
+        operator.start();
+
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace(client.getNamespace()).build());
+        database.setSpec(spec);
+
+        Secret secret = new Secret();
+        secret.setMetadata(new ObjectMetaBuilder().withName(spec.getPasswordSecrets())
+                .withNamespace(client.getNamespace()).build());
+        secret.setData(Map.of("pk", Base64.getEncoder().encodeToString("invalid_name_password".getBytes())));
+
+        log.infof("Creating test database object: %s", database);
+        client.resource(database).serverSideApply();
+        client.resource(secret).serverSideApply();
+
+        await().untilAsserted(() -> {
+            DatabaseStatus status = client.resource(database).get().getStatus();
+            Assertions.assertNotNull(status);
+            Assertions.assertEquals(DatabaseStatus.Status.ERROR, status.getStatus());
+            Assertions.assertTrue(status.getMessage().startsWith("Invalid user name '" + user + "'"));
+        });
+
+        // the invalid name is not a connection failure of the host
+        Assertions.assertTrue(hostCircuitBreaker.allow("postgresql"));
+    }
+
     @Test
     void databaseSpecNullKeyTest() {
 
@@ -517,4 +562,69 @@ class DatabaseSchemaTest {
 
     }
 
+    @Test
+    void createExtensionsIndependentlyTest() throws Exception {
+        String testUser = "ext_user_1";
+        String testPassword = "ext_password_1";
+        String testDatabase = "ext_database_1";
+
+        String segVersion;
+        try (Connection con = createAdminConnection();
+                Statement statement = con.createStatement();
+                ResultSet rs = statement
+                        .executeQuery("SELECT default_version FROM pg_available_extensions WHERE name = 'seg'")) {
+            rs.next();
+            segVersion = rs.getString(1);
+        }
+
+        Base64.Encoder encoder = Base64.getEncoder();
+
+        operator.start();
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setName(testDatabase);
+        spec.setUser(testUser);
+        spec.setHost("postgresql");
+        spec.setPasswordKey("pk");
+        spec.setPasswordSecrets("ext-db-1");
+        spec.setExtensions(List.of("seg", "does_not_exists", "cube"));
+        spec.setExtensionVersions(Map.of("seg", segVersion));
+
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName("ext-1").withNamespace(client.getNamespace()).build());
+        database.setSpec(spec);
+
+        Secret secret = new Secret();
+        secret.setMetadata(new ObjectMetaBuilder().withName(spec.getPasswordSecrets())
+                .withNamespace(client.getNamespace()).build());
+        secret.setData(Map.of(spec.getPasswordKey(), encoder.encodeToString(testPassword.getBytes())));
+
+        client.resource(database).serverSideApply();
+        client.resource(secret).serverSideApply();
+
+        // failed extension does not block the other extensions
+        await().untilAsserted(() -> {
+            DatabaseStatus status = client.resource(database).get().getStatus();
+            Assertions.assertNotNull(status);
+            Assertions.assertEquals(DatabaseStatus.Status.ERROR, status.getStatus());
+
+            Map<String, String> extensions = new HashMap<>();
+            try (Connection con = createConnection(testUser, testPassword, testDatabase);
+                    Statement statement = con.createStatement();
+                    ResultSet rs = statement.executeQuery("SELECT extname, extversion FROM pg_extension")) {
+                while (rs.next()) {
+                    extensions.put(rs.getString(1), rs.getString(2));
+                }
+            }
+            Assertions.assertEquals(segVersion, extensions.get("seg"));
+            Assertions.assertTrue(extensions.containsKey("cube"));
+            Assertions.assertFalse(extensions.containsKey("does_not_exists"));
+        });
+    }
+
+    private static Connection createAdminConnection() throws Exception {
+        Config config = ConfigProvider.getConfig();
+        return createConnection(config.getValue("quarkus.datasource.username", String.class),
+                config.getValue("quarkus.datasource.password", String.class),
+                config.getValue("quarkus.datasource.username", String.class));
+    }
 }
@@ -1,17 +1,33 @@
 package org.tkit.onecx.k8s.db.postgresql.operator;
 
+import java.util.List;
 import java.util.stream.Stream;
 
+import jakarta.inject.Inject;
+
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.test.junit.QuarkusTest;
 
 @QuarkusTest
 class DatabaseServiceTest {
 
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    DatabaseService databaseService;
+
+    @Inject
+    MeterRegistry registry;
+
     @ParameterizedTest
     @MethodSource("createJdbcUrlParameters")
     void createJdbcUrlTest(String url, String database, String result) {
@@ -28,4 +44,64 @@ class DatabaseServiceTest {
                         "jdbc:postgresql://localhost:32769/12345"));
     }
 
+    @Test
+    void unchangedDatabaseTest() throws Exception {
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setHost("postgresql");
+        spec.setName("unchanged_database");
+        spec.setUser("unchanged_user");
+        spec.setSchema("unchanged_schema");
+        spec.setUserSearchPath("unchanged_schema,public");
+        spec.setExtensions(List.of("seg"));
+        byte[] password = "unchanged_password".getBytes();
+
+        databaseService.update(spec, password);
+        double schema = stepCount("schema");
+        double check = stepCount("database_check");
+
+        // second update checks the database with the admin and does not open the user connection
+        databaseService.update(spec, password);
+        Assertions.assertEquals(schema, stepCount("schema"));
+        Assertions.assertEquals(check + 1, stepCount("database_check"));
+
+        // changed search path is updated with the user connection
+        double searchPath = stepCount("search_path");
+        spec.setUserSearchPath("public");
+        databaseService.update(spec, password);
+        Assertions.assertEquals(searchPath + 1, stepCount("search_path"));
+        Assertions.assertEquals(schema, stepCount("schema"));
+    }
+
+    @Test
+    void quotedNamesTest() throws Exception {
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setHost("postgresql");
+        spec.setName("Quoted_Database");
+        spec.setUser("user");
+        spec.setSchema("Quoted Schema");
+        spec.setUserSearchPath("\"Quoted Schema\",Public,$user");
+        byte[] password = "quoted_password".getBytes();
+
+        databaseService.update(spec, password);
+
+        // second update finds the stored names and search path
+        double searchPath = stepCount("search_path");
+        double schema = stepCount("schema");
+        databaseService.update(spec, password);
+        Assertions.assertEquals(searchPath, stepCount("search_path"));
+        Assertions.assertEquals(schema, stepCount("schema"));
+    }
+
+    @Test
+    void extensionChangedTest() {
+        Assertions.assertTrue(DatabaseService.isExtensionChanged(null, null));
+        Assertions.assertTrue(DatabaseService.isExtensionChanged("1.1", "1.0"));
+        Assertions.assertFalse(DatabaseService.isExtensionChanged(null, "1.0"));
+        Assertions.assertFalse(DatabaseService.isExtensionChanged("1.0", "1.0"));
+    }
+
+    private double stepCount(String step) {
+        return registry.find(DatabaseTelemetry.METRIC_RECONCILE_STEP).tag("step", step).timers().stream()
+                .mapToLong(Timer::count).sum();
+    }
 }
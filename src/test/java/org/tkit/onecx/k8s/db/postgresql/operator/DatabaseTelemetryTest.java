@@ -0,0 +1,45 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class DatabaseTelemetryTest {
+
+    @Inject
+    DatabaseTelemetry telemetry;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void stepTest() throws Exception {
+        String result = telemetry.step(DatabaseTelemetry.Step.SCHEMA, () -> "done");
+        assertThat(result).isEqualTo("done");
+        assertThat(registry.get(DatabaseTelemetry.METRIC_RECONCILE_STEP).tag("step", "schema").timer().count())
+                .isPositive();
+
+        assertThatThrownBy(() -> telemetry.extension("metrics_test", () -> {
+            throw new SQLException("error");
+        })).isInstanceOf(SQLException.class);
+        assertThat(registry.get(DatabaseTelemetry.METRIC_RECONCILE_STEP).tag("step", "extension")
+                .tag("extension", "metrics_test").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void outcomeTest() {
+        double count = registry.counter(DatabaseTelemetry.METRIC_RECONCILE_OUTCOME, "outcome", "skipped_host").count();
+        telemetry.outcome(DatabaseTelemetry.Outcome.SKIPPED_HOST);
+        assertThat(registry.get(DatabaseTelemetry.METRIC_RECONCILE_OUTCOME).tag("outcome", "skipped_host").counter().count())
+                .isEqualTo(count + 1);
+    }
+}
@@ -0,0 +1,121 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(DatabaseTracingTest.CustomProfile.class)
+class DatabaseTracingTest {
+
+    @Inject
+    DatabaseTelemetry telemetry;
+
+    @Inject
+    InMemorySpanExporter exporter;
+
+    @BeforeEach
+    void reset() {
+        exporter.reset();
+    }
+
+    @Test
+    void reconcileSpanTest() throws Exception {
+        Database database = createDatabase("tracing-ok");
+
+        String result = telemetry.reconcile(database, () -> telemetry.step(DatabaseTelemetry.Step.SCHEMA, () -> "done"));
+        assertThat(result).isEqualTo("done");
+
+        List<SpanData> spans = awaitSpans(2);
+        SpanData reconcile = span(spans, DatabaseTelemetry.SPAN_RECONCILE);
+        SpanData schema = span(spans, "schema");
+
+        assertThat(schema.getParentSpanId()).isEqualTo(reconcile.getSpanId());
+        assertThat(schema.getTraceId()).isEqualTo(reconcile.getTraceId());
+        assertThat(reconcile.getAttributes().get(DatabaseTelemetry.ATTR_RESOURCE)).isEqualTo("tracing-ok");
+        assertThat(reconcile.getAttributes().get(DatabaseTelemetry.ATTR_DATABASE)).isEqualTo("tracing_db");
+        assertThat(reconcile.getAttributes().get(DatabaseTelemetry.ATTR_USER)).isEqualTo("tracing_user");
+        assertThat(reconcile.getAttributes().get(DatabaseTelemetry.ATTR_HOST)).isEqualTo("postgresql");
+        assertThat(reconcile.getStatus().getStatusCode()).isEqualTo(StatusCode.UNSET);
+    }
+
+    @Test
+    void errorSpanTest() {
+        Database database = createDatabase("tracing-error");
+
+        assertThatThrownBy(() -> telemetry.reconcile(database, () -> telemetry.extension("tracing_ext", () -> {
+            throw new SQLException("extension error");
+        }))).isInstanceOf(SQLException.class);
+
+        List<SpanData> spans = awaitSpans(2);
+        SpanData reconcile = span(spans, DatabaseTelemetry.SPAN_RECONCILE);
+        SpanData extension = span(spans, "extension");
+
+        assertThat(extension.getParentSpanId()).isEqualTo(reconcile.getSpanId());
+        assertThat(extension.getAttributes().get(DatabaseTelemetry.ATTR_EXTENSION)).isEqualTo("tracing_ext");
+        assertThat(extension.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+        assertThat(extension.getEvents()).anyMatch(e -> "exception".equals(e.getName()));
+        assertThat(reconcile.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+    }
+
+    private List<SpanData> awaitSpans(int count) {
+        await().atMost(5, SECONDS).untilAsserted(() -> assertThat(exporter.getFinishedSpanItems()).hasSize(count));
+        return exporter.getFinishedSpanItems();
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream().filter(s -> name.equals(s.getName())).findFirst().orElseThrow();
+    }
+
+    private static Database createDatabase(String name) {
+        DatabaseSpec spec = new DatabaseSpec();
+        spec.setName("tracing_db");
+        spec.setUser("tracing_user");
+        spec.setHost("postgresql");
+
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace("default").build());
+        database.setSpec(spec);
+        return database;
+    }
+
+    @ApplicationScoped
+    static class InMemorySpanExporterProducer {
+
+        @Produces
+        @Singleton
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.otel.bsp.schedule.delay", "50ms",
+                    "quarkus.otel.bsp.export.timeout", "1s");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.javaoperatorsdk.operator.Operator;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jdk.jfr.consumer.RecordingStream;
+
+@QuarkusTest
+@TestProfile(DatabaseVirtualThreadsTest.CustomProfile.class)
+class DatabaseVirtualThreadsTest {
+
+    static final Logger log = Logger.getLogger(DatabaseVirtualThreadsTest.class);
+
+    static final int COUNT = 30;
+
+    @Inject
+    Operator operator;
+
+    @Inject
+    KubernetesClient client;
+
+    @Test
+    void concurrentReconcileTest() {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require Java 21");
+
+        AtomicInteger pinned = new AtomicInteger();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                log.warnf("Virtual thread pinned: %s", event);
+                pinned.incrementAndGet();
+            });
+            recording.startAsync();
+
+            operator.start();
+
+            Base64.Encoder encoder = Base64.getEncoder();
+            List<Database> databases = new ArrayList<>();
+            for (int i = 0; i < COUNT; i++) {
+                DatabaseSpec spec = new DatabaseSpec();
+                spec.setName("vt_database_" + i);
+                spec.setUser("vt_user_" + i);
+                spec.setHost("postgresql");
+                spec.setSchema("vt_user_" + i);
+                spec.setPasswordKey("pk");
+                spec.setPasswordSecrets("vt-db-" + i);
+
+                Database database = new Database();
+                database.setMetadata(
+                        new ObjectMetaBuilder().withName("vt-" + i).withNamespace(client.getNamespace()).build());
+                database.setSpec(spec);
+
+                Secret secret = new Secret();
+                secret.setMetadata(new ObjectMetaBuilder().withName(spec.getPasswordSecrets())
+                        .withNamespace(client.getNamespace()).build());
+                secret.setData(Map.of(spec.getPasswordKey(), encoder.encodeToString(("vt_password_" + i).getBytes())));
+
+                client.resource(database).serverSideApply();
+                client.resource(secret).serverSideApply();
+                databases.add(database);
+            }
+
+            log.infof("Waiting for %s databases to be created", COUNT);
+
+            await().atMost(60, SECONDS).pollInterval(1, SECONDS).untilAsserted(() -> {
+                for (Database database : databases) {
+                    DatabaseStatus status = client.resource(database).get().getStatus();
+                    Assertions.assertNotNull(status);
+                    Assertions.assertEquals(DatabaseStatus.Status.CREATED, status.getStatus());
+                }
+            });
+        }
+
+        Assertions.assertEquals(0, pinned.get(), "Reconcile pinned the virtual thread carrier");
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("onecx.k8s.db.postgresql.operator.reconcile.virtual-threads", "true");
+        }
+    }
+}
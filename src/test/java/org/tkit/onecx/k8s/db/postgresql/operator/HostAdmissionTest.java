@@ -0,0 +1,43 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class HostAdmissionTest {
+
+    @Inject
+    HostAdmission hostAdmission;
+
+    @Inject
+    DatabaseConfig config;
+
+    @Test
+    void maxConcurrentPerHostTest() {
+        int max = config.reconcileConfig().maxConcurrentPerHost();
+        List<HostAdmission.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < max; i++) {
+            HostAdmission.Permit permit = hostAdmission.tryAcquire("admission-host");
+            assertThat(permit).isNotNull();
+            permits.add(permit);
+        }
+        assertThat(hostAdmission.tryAcquire("admission-host")).isNull();
+        assertThat(hostAdmission.tryAcquire("other-admission-host")).isNotNull();
+
+        HostAdmission.Permit permit = permits.remove(0);
+        permit.close();
+        permit.close();
+        assertThat(hostAdmission.available("admission-host")).isEqualTo(1);
+
+        permits.forEach(HostAdmission.Permit::close);
+        assertThat(hostAdmission.available("admission-host")).isEqualTo(max);
+    }
+}
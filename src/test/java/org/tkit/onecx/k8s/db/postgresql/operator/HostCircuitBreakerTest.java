@@ -0,0 +1,84 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(HostCircuitBreakerTest.CustomProfile.class)
+class HostCircuitBreakerTest {
+
+    @Inject
+    HostCircuitBreaker circuitBreaker;
+
+    @Test
+    void connectionFailureTest() {
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLException("Sorry, acquisition timeout!"))).isTrue();
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLException(
+                "Acquisition timeout while waiting for new connection", new SQLException("refused", "08001")))).isTrue();
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLException("refused", "08001"))).isTrue();
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLException("shutdown", "57P01"))).isTrue();
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLTransientConnectionException("closed", "XX000")))
+                .isTrue();
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLException("syntax", "42601"))).isFalse();
+        // errors without SQL state are not connection failures
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLException("timeout"))).isFalse();
+        assertThat(HostCircuitBreaker.isConnectionFailure(new SQLException("Invalid name"))).isFalse();
+        assertThat(HostCircuitBreaker.isConnectionFailure(
+                new SQLException("Invalid name", Identifiers.SQL_STATE_INVALID_NAME))).isFalse();
+    }
+
+    @Test
+    void openAndRecoverTest() {
+        List<String> recovered = new CopyOnWriteArrayList<>();
+        Consumer<String> listener = recovered::add;
+        circuitBreaker.addListener(listener);
+        try {
+            // statement errors are not counted
+            circuitBreaker.failure("postgresql", new SQLException("syntax", "42601"));
+            circuitBreaker.failure("postgresql", new SQLException("syntax", "42601"));
+            assertThat(circuitBreaker.allow("postgresql")).isTrue();
+
+            circuitBreaker.failure("postgresql", new SQLException("Sorry, acquisition timeout!"));
+            circuitBreaker.success("postgresql");
+            circuitBreaker.failure("postgresql", new SQLException("Sorry, acquisition timeout!"));
+            assertThat(circuitBreaker.allow("postgresql")).isTrue();
+
+            circuitBreaker.failure("postgresql", new SQLException("Sorry, acquisition timeout!"));
+            assertThat(circuitBreaker.allow("postgresql")).isFalse();
+            assertThat(circuitBreaker.allow("other-host")).isTrue();
+
+            // health check closes the circuit of the available host
+            await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+                assertThat(circuitBreaker.allow("postgresql")).isTrue();
+                assertThat(recovered).containsExactly("postgresql");
+            });
+        } finally {
+            circuitBreaker.removeListener(listener);
+        }
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("onecx.k8s.db.postgresql.operator.circuit-breaker.failure-threshold", "2",
+                    "onecx.k8s.db.postgresql.operator.circuit-breaker.probe-interval", "PT0.5S");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(HostDataSourcesTest.CustomProfile.class)
+class HostDataSourcesTest {
+
+    static final String SECOND_HOST = "postgresql-second";
+
+    @Inject
+    HostDataSources hostDataSources;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    HostAdmission hostAdmission;
+
+    @Test
+    void hostsTest() throws Exception {
+        assertThat(hostDataSources.contains("postgresql")).isTrue();
+        assertThat(hostDataSources.contains(SECOND_HOST)).isTrue();
+        assertThat(hostDataSources.contains("unknown")).isFalse();
+
+        assertThat(hostDataSources.created()).containsExactly("postgresql");
+
+        HostDataSources.Host host = hostDataSources.get("postgresql");
+        assertThat(host.dataSource()).isSameAs(dataSource);
+
+        HostDataSources.Host second = hostDataSources.get(SECOND_HOST);
+        assertThat(second.dataSource()).isNotSameAs(dataSource);
+        assertThat(second.admin()).isEqualTo(host.admin());
+        assertThat(second.dataSource().getConfiguration().connectionPoolConfiguration().maxSize()).isEqualTo(3);
+        assertThat(hostDataSources.get(SECOND_HOST)).isSameAs(second);
+        assertThat(hostDataSources.created()).containsExactly("postgresql", SECOND_HOST);
+
+        try (Connection connection = second.dataSource().getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+
+        assertThatThrownBy(() -> hostDataSources.get("unknown")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void admissionLimitTest() {
+        assertThat(hostDataSources.maxSize(SECOND_HOST)).isEqualTo(3);
+        assertThat(hostDataSources.maxSize("postgresql"))
+                .isEqualTo(dataSource.getConfiguration().connectionPoolConfiguration().maxSize());
+        assertThatThrownBy(() -> hostDataSources.maxSize("unknown")).isInstanceOf(IllegalArgumentException.class);
+
+        // the admission of the host is limited by the pool size of the host admin datasource
+        assertThat(hostAdmission.limit(SECOND_HOST)).isEqualTo(3);
+        HostAdmission.Permit[] permits = new HostAdmission.Permit[3];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = hostAdmission.tryAcquire(SECOND_HOST);
+            assertThat(permits[i]).isNotNull();
+        }
+        assertThat(hostAdmission.tryAcquire(SECOND_HOST)).isNull();
+        for (HostAdmission.Permit permit : permits) {
+            permit.close();
+        }
+        assertThat(hostAdmission.available(SECOND_HOST)).isEqualTo(3);
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            String prefix = "onecx.k8s.db.postgresql.operator.hosts.\"" + SECOND_HOST + "\".";
+            return Map.of(prefix + "jdbc-url", "${quarkus.datasource.jdbc.url}",
+                    prefix + "username", "${quarkus.datasource.username}",
+                    prefix + "password", "${quarkus.datasource.password}",
+                    prefix + "max-size", "3");
+        }
+    }
+}
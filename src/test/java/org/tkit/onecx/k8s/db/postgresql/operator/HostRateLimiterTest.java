@@ -0,0 +1,73 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(HostRateLimiterTest.CustomProfile.class)
+class HostRateLimiterTest {
+
+    @Inject
+    HostRateLimiter hostRateLimiter;
+
+    @Test
+    void bucketTest() {
+        HostRateLimiter.Bucket bucket = new HostRateLimiter.Bucket(5, 0.4);
+        long now = System.nanoTime();
+
+        // resync could use only the tokens over the reserve
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(now, false)).isZero();
+        }
+        assertThat(bucket.tryAcquire(now, false)).isPositive();
+
+        // new resources use the reserve
+        assertThat(bucket.tryAcquire(now, true)).isZero();
+        assertThat(bucket.tryAcquire(now, true)).isZero();
+        long wait = bucket.tryAcquire(now, true);
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+
+        // refill after the wait
+        assertThat(bucket.tryAcquire(now + wait, true)).isZero();
+        assertThat(bucket.tryAcquire(now + TimeUnit.SECONDS.toNanos(1) + wait, false)).isZero();
+    }
+
+    @Test
+    void hostTest() {
+        for (int i = 0; i < 2; i++) {
+            assertThat(hostRateLimiter.tryAcquire("rate-host", true)).isZero();
+        }
+        assertThat(hostRateLimiter.tryAcquire("rate-host", true)).isPositive();
+        assertThat(hostRateLimiter.tryAcquire("other-rate-host", false)).isZero();
+    }
+
+    @Test
+    void newResourceTest() {
+        Database database = new Database();
+        assertThat(DatabaseController.isNew(database)).isTrue();
+
+        database.setStatus(new DatabaseStatus());
+        assertThat(DatabaseController.isNew(database)).isTrue();
+
+        database.getStatus().setStatus(DatabaseStatus.Status.CREATED);
+        assertThat(DatabaseController.isNew(database)).isFalse();
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("onecx.k8s.db.postgresql.operator.reconcile.rate-limit.ops-per-second", "2");
+        }
+    }
+}
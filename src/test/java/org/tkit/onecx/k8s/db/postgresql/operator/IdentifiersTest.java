@@ -0,0 +1,48 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+
+class IdentifiersTest {
+
+    @Test
+    void quoteTest() throws Exception {
+        assertThat(Identifiers.quote("test_user")).isEqualTo("test_user");
+        assertThat(Identifiers.quote("TestUser")).isEqualTo("\"TestUser\"");
+        assertThat(Identifiers.quote("user")).isEqualTo("\"user\"");
+        assertThat(Identifiers.quote("1user")).isEqualTo("\"1user\"");
+        assertThat(Identifiers.quote("test\"user")).isEqualTo("\"test\"\"user\"");
+        assertThatThrownBy(() -> Identifiers.quote("")).isInstanceOf(SQLException.class)
+                .extracting(ex -> ((SQLException) ex).getSQLState()).isEqualTo(Identifiers.SQL_STATE_INVALID_NAME);
+        assertThatThrownBy(() -> Identifiers.quote("test\0user")).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void isValidTest() {
+        assertThat(Identifiers.isValid("test_user")).isTrue();
+        assertThat(Identifiers.isValid("x".repeat(Identifiers.MAX_LENGTH))).isTrue();
+        assertThat(Identifiers.isValid("x".repeat(Identifiers.MAX_LENGTH + 1))).isFalse();
+        assertThat(Identifiers.isValid("\u00e4".repeat(32))).isFalse();
+        assertThat(Identifiers.isValid("")).isFalse();
+        assertThat(Identifiers.isValid(null)).isFalse();
+        assertThat(Identifiers.isValid("test\0user")).isFalse();
+    }
+
+    @Test
+    void quoteSearchPathTest() throws Exception {
+        assertThat(Identifiers.quoteSearchPath("test_custom2,public")).isEqualTo("test_custom2, public");
+        assertThat(Identifiers.quoteSearchPath("$user, public")).isEqualTo("\"$user\", public");
+        assertThat(Identifiers.quoteSearchPath("\"My Schema\",public")).isEqualTo("\"My Schema\", public");
+        assertThat(Identifiers.quoteSearchPath("MySchema, \"MySchema\", \"order\", Order"))
+                .isEqualTo("myschema, \"MySchema\", \"order\", \"order\"");
+        assertThat(Identifiers.quoteSearchPath("\"my\"\"schema\"")).isEqualTo("\"my\"\"schema\"");
+        assertThat(Identifiers.quoteSearchPath("public; DROP DATABASE x")).isEqualTo("\"public; DROP DATABASE x\"");
+        assertThatThrownBy(() -> Identifiers.quoteSearchPath("public\"; DROP DATABASE x; --"))
+                .isInstanceOf(SQLException.class);
+        assertThatThrownBy(() -> Identifiers.quoteSearchPath("public,")).isInstanceOf(SQLException.class);
+    }
+}
@@ -23,5 +23,6 @@ class LeaderConfigurationTest {
         assertThat(dataConfig.leaderElectionConfig()).isNotNull();
         assertThat(leaderConfiguration).isNotNull();
         assertThat(leaderConfiguration.getLeaseName()).isNotNull().isEqualTo(dataConfig.leaderElectionConfig().leaseName());
+        assertThat(leaderConfiguration.getLeaderCallbacks()).isPresent();
     }
 }
@@ -0,0 +1,53 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.javaoperatorsdk.operator.processing.event.ResourceID;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class ReconcileDebounceTest {
+
+    @Inject
+    ReconcileDebounce debounce;
+
+    @Test
+    void delayTest() {
+        ResourceID id = new ResourceID("debounce-db", "ns-1");
+        long window = TimeUnit.SECONDS.toNanos(1);
+
+        // first change opens the window
+        assertThat(debounce.delay(id, r -> true, 0)).isEqualTo(window);
+        assertThat(debounce.delay(id, r -> true, window / 2)).isEqualTo(window / 2);
+        assertThat(debounce.delay(new ResourceID("other-db", "ns-1"), r -> true, window / 2)).isEqualTo(window);
+
+        // end of the window, the rescheduled reconciles are not delayed until the database was changed
+        assertThat(debounce.delay(id, r -> true, window)).isZero();
+        assertThat(debounce.delay(id, r -> true, 3 * window)).isZero();
+
+        // next change opens a new window
+        debounce.remove(id);
+        assertThat(debounce.delay(id, r -> true, 4 * window)).isEqualTo(window);
+        debounce.remove(id);
+        debounce.remove(new ResourceID("other-db", "ns-1"));
+    }
+
+    @Test
+    void pruneTest() {
+        int size = debounce.size();
+        for (int i = 0; debounce.size() < ReconcileDebounce.PRUNE_SIZE; i++) {
+            debounce.delay(new ResourceID("deleted-db-" + i, "ns-1"), r -> true, 0);
+        }
+
+        // the windows of the deleted resources are removed
+        debounce.delay(new ResourceID("prune-db", "ns-1"), r -> !r.getName().startsWith("deleted-db-"), 0);
+        assertThat(debounce.size()).isEqualTo(size + 1);
+        debounce.remove(new ResourceID("prune-db", "ns-1"));
+    }
+}
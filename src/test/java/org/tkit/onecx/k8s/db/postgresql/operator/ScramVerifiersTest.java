@@ -0,0 +1,80 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(ScramVerifiersTest.CustomProfile.class)
+class ScramVerifiersTest {
+
+    @Inject
+    ScramVerifiers verifiers;
+
+    @Test
+    void verifierTest() {
+        byte[] password = "scram_password".getBytes();
+        String verifier = verifiers.create(password);
+        assertThat(verifier).startsWith(ScramVerifiers.PREFIX).doesNotContain("scram_password");
+        assertThat(verifiers.create(password)).isNotEqualTo(verifier);
+
+        assertThat(verifiers.matches("postgresql", "scram_user", password, verifier)).isTrue();
+        // cached verified password
+        assertThat(verifiers.matches("postgresql", "scram_user", password, verifier)).isTrue();
+        assertThat(verifiers.matches("postgresql", "scram_user", "changed_password".getBytes(), verifier)).isFalse();
+        assertThat(verifiers.matches("postgresql", "scram_user", password, null)).isFalse();
+        assertThat(verifiers.matches("postgresql", "scram_user", password, "md5c9b0a2f4ab3e5b4ff8e1e5ed2a3a1f9b")).isFalse();
+        assertThat(verifiers.matches("postgresql", "scram_user", password, ScramVerifiers.PREFIX + "broken")).isFalse();
+    }
+
+    @Test
+    void verifiedTest() {
+        byte[] password = "scram_verified_password".getBytes();
+        assertThat(verifiers.isVerified("postgresql", "scram_verified_user", password)).isFalse();
+
+        verifiers.verified("postgresql", "scram_verified_user", password, verifiers.create(password));
+        assertThat(verifiers.isVerified("postgresql", "scram_verified_user", password)).isTrue();
+        assertThat(verifiers.isVerified("postgresql", "scram_verified_user", "changed_password".getBytes())).isFalse();
+        assertThat(verifiers.isVerified("other-host", "scram_verified_user", password)).isFalse();
+
+        verifiers.invalidate("postgresql", "scram_verified_user");
+        assertThat(verifiers.isVerified("postgresql", "scram_verified_user", password)).isFalse();
+
+        assertThat(verifiers.isReadable("scram-host")).isTrue();
+        verifiers.unreadable("scram-host");
+        assertThat(verifiers.isReadable("scram-host")).isFalse();
+        assertThat(verifiers.isReadable("postgresql")).isTrue();
+    }
+
+    @Test
+    void verifiedTtlTest() {
+        byte[] password = "scram_ttl_password".getBytes();
+        String verifier = verifiers.create(password);
+        verifiers.verified("postgresql", "scram_ttl_user", password, verifier);
+        assertThat(verifiers.isVerified("postgresql", "scram_ttl_user", password)).isTrue();
+
+        // expired password is checked against the stored verifier again
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> !verifiers.isVerified("postgresql", "scram_ttl_user", password));
+        assertThat(verifiers.matches("postgresql", "scram_ttl_user", password, verifier)).isTrue();
+        assertThat(verifiers.isVerified("postgresql", "scram_ttl_user", password)).isTrue();
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("onecx.k8s.db.postgresql.operator.secret.verified-ttl", "PT1S");
+        }
+    }
+}
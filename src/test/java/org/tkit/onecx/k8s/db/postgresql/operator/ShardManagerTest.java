@@ -0,0 +1,129 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseSpec;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(ShardManagerTest.CustomProfile.class)
+class ShardManagerTest {
+
+    static final int SHARDS = 4;
+
+    @Inject
+    ShardManager shardManager;
+
+    @Inject
+    KubernetesClient client;
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    LeaderConfiguration leaderConfiguration;
+
+    @Test
+    void shardTest() {
+        assertThat(ShardManager.shard("default", "db-1", SHARDS)).isBetween(0, SHARDS - 1)
+                .isEqualTo(ShardManager.shard("default", "db-1", SHARDS));
+        assertThat(IntStream.range(0, 100).map(i -> ShardManager.shard("default", "db-" + i, SHARDS)).distinct().count())
+                .isEqualTo(SHARDS);
+
+        assertThat(ShardManager.fairShare(16, 1)).isEqualTo(16);
+        assertThat(ShardManager.fairShare(16, 3)).isEqualTo(6);
+        assertThat(ShardManager.fairShare(16, 16)).isEqualTo(1);
+        assertThat(ShardManager.fairShare(4, 5)).isEqualTo(1);
+    }
+
+    @Test
+    void balanceTest() {
+        assertThat(leaderConfiguration.getLeaseName())
+                .isEqualTo(config.leaderElectionConfig().leaseName() + "-" + shardManager.identity());
+
+        // single replica claims all shards
+        await().atMost(10, SECONDS).untilAsserted(() -> assertThat(ownedShards()).isEqualTo(SHARDS));
+
+        // second replica joins, the shards over the fair share are released
+        Lease member = new Lease();
+        member.setMetadata(new ObjectMetaBuilder()
+                .withName(config.leaderElectionConfig().leaseName() + "-member-other-replica")
+                .withNamespace(client.getNamespace()).build());
+        member.setSpec(new LeaseSpec());
+        member.getSpec().setHolderIdentity("other-replica");
+        member.getSpec().setRenewTime(ZonedDateTime.now());
+        member.getSpec().setLeaseDurationSeconds(60);
+        client.resource(member).create();
+        try {
+            shardManager.balance();
+            assertThat(ownedShards()).isEqualTo(SHARDS / 2);
+        } finally {
+            client.resource(member).delete();
+        }
+
+        // second replica is gone, the released shards are claimed again
+        shardManager.balance();
+        assertThat(ownedShards()).isEqualTo(SHARDS);
+    }
+
+    @Test
+    void expiredLeaderLeaseTest() {
+        assertThat(shardManager.leaderLeaseName()).isEqualTo(leaderConfiguration.getLeaseName());
+
+        // leader lease of a replica which is gone
+        Lease leader = new Lease();
+        leader.setMetadata(new ObjectMetaBuilder()
+                .withName(config.leaderElectionConfig().leaseName() + "-gone-replica")
+                .withNamespace(client.getNamespace()).build());
+        leader.setSpec(new LeaseSpec());
+        leader.getSpec().setHolderIdentity("gone-replica");
+        leader.getSpec().setRenewTime(ZonedDateTime.now().minusMinutes(5));
+        leader.getSpec().setLeaseDurationSeconds(15);
+        client.resource(leader).create();
+
+        shardManager.balance();
+        assertThat(client.leases().inNamespace(client.getNamespace()).withName(leader.getMetadata().getName()).get())
+                .isNull();
+    }
+
+    private long ownedShards() {
+        return IntStream.range(0, 100)
+                .mapToObj(i -> database("db-" + i))
+                .filter(shardManager::owns)
+                .map(d -> ShardManager.shard(d.getMetadata().getNamespace(), d.getMetadata().getName(), SHARDS))
+                .distinct()
+                .count();
+    }
+
+    private static Database database(String name) {
+        Database database = new Database();
+        database.setMetadata(new ObjectMetaBuilder().withName(name).withNamespace("default").build());
+        return database;
+    }
+
+    public static class CustomProfile implements QuarkusTestProfile {
+
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("onecx.k8s.db.postgresql.operator.sharding.enabled", "true",
+                    "onecx.k8s.db.postgresql.operator.sharding.shards", String.valueOf(SHARDS),
+                    "onecx.k8s.db.postgresql.operator.sharding.identity", "shard-test-replica",
+                    "onecx.k8s.db.postgresql.operator.sharding.renew-interval", "PT1S");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.tkit.onecx.k8s.db.postgresql.operator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class UserDataSourceCacheTest {
+
+    static final String HOST = "postgresql";
+
+    @Inject
+    UserDataSourceCache cache;
+
+    @Inject
+    DatabaseConfig config;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @AfterEach
+    void cleanup() {
+        cache.closeAll();
+    }
+
+    @Test
+    void reuseDataSourceTest() throws Exception {
+        AgroalDataSource ds1 = get("cache_db", "cache_user", "password");
+        AgroalDataSource ds2 = get("cache_db", "cache_user", "password");
+        assertThat(ds2).isSameAs(ds1);
+
+        AgroalDataSource other = get("cache_db", "other_user", "password");
+        assertThat(other).isNotSameAs(ds1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void passwordChangedTest() throws Exception {
+        AgroalDataSource ds1 = get("cache_db", "cache_user", "password");
+        AgroalDataSource ds2 = get("cache_db", "cache_user", "new_password");
+        assertThat(ds2).isNotSameAs(ds1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateTest() throws Exception {
+        AgroalDataSource ds1 = get("cache_db", "cache_user", "password");
+        cache.invalidate(HOST, "cache_db", "cache_user");
+        assertThat(cache.size()).isZero();
+
+        AgroalDataSource ds2 = get("cache_db", "cache_user", "password");
+        assertThat(ds2).isNotSameAs(ds1);
+    }
+
+    @Test
+    void evictOverflowTest() throws Exception {
+        int max = config.userDataSourceConfig().cacheSize();
+        AgroalDataSource first = get("cache_db_0", "cache_user", "password");
+        for (int i = 1; i <= max; i++) {
+            get("cache_db_" + i, "cache_user", "password");
+        }
+        assertThat(cache.size()).isEqualTo(max);
+
+        AgroalDataSource again = get("cache_db_0", "cache_user", "password");
+        assertThat(again).isNotSameAs(first);
+    }
+
+    @Test
+    void leaseTest() throws Exception {
+        UserDataSourceCache.Lease lease = cache.get(HOST, "cache_db", "cache_user", "password".getBytes(), this::create);
+        AgroalDataSource leased = lease.dataSource();
+
+        // the evicted datasource is closed after the last lease is released
+        cache.invalidate(HOST, "cache_db", "cache_user");
+        assertThat(cache.size()).isZero();
+        try (Connection connection = leased.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+
+        lease.close();
+        lease.close();
+        assertThatThrownBy(leased::getConnection).isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void adminCacheSizeTest() throws Exception {
+        int max = config.userDataSourceConfig().adminCacheSize();
+        for (int i = 0; i <= max; i++) {
+            cache.getAdmin(HOST, "cache_db_" + i, this::create).close();
+        }
+        assertThat(cache.adminSize()).isEqualTo(max);
+        assertThat(cache.size()).isZero();
+
+        cache.invalidateAdmin(HOST, "cache_db_" + max);
+        assertThat(cache.adminSize()).isEqualTo(max - 1);
+    }
+
+    private AgroalDataSource get(String database, String user, String password) throws SQLException {
+        try (UserDataSourceCache.Lease lease = cache.get(HOST, database, user, password.getBytes(), this::create)) {
+            return lease.dataSource();
+        }
+    }
+
+    private AgroalDataSource create() throws SQLException {
+        AgroalDataSourceConfigurationSupplier configuration = new AgroalDataSourceConfigurationSupplier();
+        configuration.connectionPoolConfiguration(dataSource.getConfiguration().connectionPoolConfiguration());
+        configuration.connectionPoolConfiguration().initialSize(0).minSize(0);
+        return AgroalDataSource.from(configuration.get());
+    }
+}